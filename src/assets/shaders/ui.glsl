@@ -7,7 +7,6 @@ layout (location=2) in vec2 aTexCoords;
 layout (location=3) in float aTexId;
 
 uniform mat4 uProjection;
-uniform mat4 uView;
 
 out vec4 fColor;
 out vec2 fTexCoords;
@@ -28,31 +27,40 @@ in vec4 fColor;
 in vec2 fTexCoords;
 in float fTexId;
 
-// Font textures
+// Sprite textures and glyph atlas pages
 uniform sampler2D uTextures[8];
+// Bit i is set when texture slot i holds a signed distance field instead of coverage
+uniform int uDistanceFieldSlots;
 
 out vec4 color;
 
 void main () {
-    vec4 texColor;
+    // Slot 0 is a solid color
+    vec4 texColor = vec4(1.0);
 
-    if (fTexId == 0) {
-        texColor = fColor;
-    } else if (fTexId == 1) {
-        texColor = fColor * texture(uTextures[1], fTexCoords);
+    if (fTexId == 1) {
+        texColor = texture(uTextures[1], fTexCoords);
     } else if (fTexId == 2) {
-        texColor = fColor * texture(uTextures[2], fTexCoords);
+        texColor = texture(uTextures[2], fTexCoords);
     } else if (fTexId == 3) {
-        texColor = fColor * texture(uTextures[3], fTexCoords);
+        texColor = texture(uTextures[3], fTexCoords);
     } else if (fTexId == 4) {
-        texColor = fColor * texture(uTextures[4], fTexCoords);
+        texColor = texture(uTextures[4], fTexCoords);
     } else if (fTexId == 5) {
-        texColor = fColor * texture(uTextures[5], fTexCoords);
+        texColor = texture(uTextures[5], fTexCoords);
     } else if (fTexId == 6) {
-        texColor = fColor * texture(uTextures[6], fTexCoords);
+        texColor = texture(uTextures[6], fTexCoords);
     } else if (fTexId == 7) {
-        texColor = fColor * texture(uTextures[7], fTexCoords);
+        texColor = texture(uTextures[7], fTexCoords);
     }
 
-    color = texColor;
+    if (((uDistanceFieldSlots >> int(fTexId)) & 1) == 1) {
+        // The alpha channel is the distance to the outline, 0.5 lies exactly on it.
+        // Smooth over the width of one screen pixel, so the edge stays sharp at any scale.
+        float distance = texColor.a;
+        float smoothing = fwidth(distance) * 0.7;
+        texColor.a = smoothstep(0.5 - smoothing, 0.5 + smoothing, distance);
+    }
+
+    color = fColor * texColor;
 }
@@ -0,0 +1,69 @@
+package engine.graphics;
+
+import engine.util.Color;
+import org.joml.Vector2f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing the vertices of many quads with the {@link VertexLayout.QuadWriter} of the renderers, one object per
+ * quad, against {@link VertexLayout#writeQuads} on {@link QuadArrays}. Run with {@code gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuadArraysBenchmark {
+    @Param({"100000", "1000000"})
+    public int quadCount;
+
+    private QuadArrays quads;
+    private float[] vertices;
+
+    // The same quads as objects, the way the renderers hold them
+    private float[] x, y, width, height, data;
+    private Color[] colors;
+    private final Vector2f[] texCoords = {
+            new Vector2f(1, 1), new Vector2f(1, 0), new Vector2f(0, 0), new Vector2f(0, 1)
+    };
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        quads = new QuadArrays(quadCount);
+        x = new float[quadCount];
+        y = new float[quadCount];
+        width = new float[quadCount];
+        height = new float[quadCount];
+        data = new float[quadCount];
+        colors = new Color[quadCount];
+        for (int i = 0; i < quadCount; i++) {
+            x[i] = random.nextFloat() * 1920;
+            y[i] = random.nextFloat() * 1080;
+            width[i] = 16 + random.nextFloat() * 64;
+            height[i] = 16 + random.nextFloat() * 64;
+            data[i] = random.nextFloat();
+            colors[i] = new Color(random.nextFloat(), random.nextFloat(), random.nextFloat(), 1.0f);
+            quads.add(x[i], y[i], width[i], height[i], 0, 0, 1, 1, colors[i].toRGBA8(), i % 8, data[i]);
+        }
+        vertices = new float[quadCount * 4 * VertexLayout.SPRITE_WITH_DATA.floatCount()];
+    }
+
+    @Benchmark
+    public float[] quadWriter() {
+        VertexLayout.QuadWriter writer = VertexLayout.SPRITE_WITH_DATA.quadWriter();
+        int offset = 0;
+        for (int i = 0; i < quadCount; i++) {
+            offset = writer.write(vertices, offset, x[i], y[i], width[i], height[i], colors[i], texCoords, i % 8,
+                    data[i]);
+        }
+        return vertices;
+    }
+
+    @Benchmark
+    public float[] quadArrays() {
+        VertexLayout.SPRITE_WITH_DATA.writeQuads(quads, 0, quadCount, vertices, 0);
+        return vertices;
+    }
+}
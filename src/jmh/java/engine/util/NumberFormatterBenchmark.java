@@ -0,0 +1,76 @@
+package engine.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares formatting a frame's worth of counter values with {@link NumberFormatter} against the String based
+ * alternatives. Run with {@code gradlew jmh} and add {@code -prof gc} to the JMH arguments to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NumberFormatterBenchmark {
+    private static final int VALUE_COUNT = 1024;
+
+    private final float[] values = new float[VALUE_COUNT];
+    private final TextBuffer buffer = new TextBuffer();
+
+    private final NumberFormatter suffix = NumberFormatter.suffix(2);
+    private final NumberFormatter scientific = NumberFormatter.scientific(2);
+    private final NumberFormatter fixed = NumberFormatter.fixed(2);
+
+    @Setup
+    public void setup() {
+        // Spread the values over the whole range an idle game goes through, from a handful to 10^30
+        Random random = new Random(42);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            values[i] = (float) Math.pow(10, random.nextDouble() * 30);
+        }
+    }
+
+    @Benchmark
+    public void suffixNotation(Blackhole blackhole) {
+        for (float value : values) {
+            blackhole.consume(suffix.format(value, buffer.clear()).length());
+        }
+    }
+
+    @Benchmark
+    public void scientificNotation(Blackhole blackhole) {
+        for (float value : values) {
+            blackhole.consume(scientific.format(value, buffer.clear()).length());
+        }
+    }
+
+    @Benchmark
+    public void fixedNotation(Blackhole blackhole) {
+        for (float value : values) {
+            blackhole.consume(fixed.format(value, buffer.clear()).length());
+        }
+    }
+
+    @Benchmark
+    public void stringFormat(Blackhole blackhole) {
+        for (float value : values) {
+            blackhole.consume(String.format("%.2e", value));
+        }
+    }
+
+    @Benchmark
+    public void floatToString(Blackhole blackhole) {
+        for (float value : values) {
+            blackhole.consume(Float.toString(value));
+        }
+    }
+
+    @Benchmark
+    public void stringConcatenation(Blackhole blackhole) {
+        for (float value : values) {
+            blackhole.consume(value + "");
+        }
+    }
+}
@@ -71,10 +71,22 @@ public class GameObject {
         c.gameObject = this;
     }
 
+    /**
+     * Runs the game logic of the components, once per tick.
+     */
     public void update() {
         for (int i = 0; i < components.size(); i++) {
             components.get(i).update();
         }
+        if (eventConsumer != null) {
+            eventConsumer.tick();
+        }
+    }
+
+    /**
+     * Lets the event consumer handle the mouse, once per frame.
+     */
+    public void updateInput() {
         if (eventConsumer != null) {
             eventConsumer.update();
         }
@@ -6,6 +6,8 @@ public class Transform {
 
     public Vector2f position;
     public Vector2f scale;
+    /** The position at the start of the last tick, null until the first tick */
+    private transient Vector2f previousPosition;
 
     public Transform() {
         init(new Vector2f(), new Vector2f());
@@ -61,6 +63,42 @@ public class Transform {
         to.scale.set(this.scale);
     }
 
+    /**
+     * Remembers the position before the game logic of a tick moves it, see {@link #interpolateX(float)}.
+     */
+    public void savePreviousPosition() {
+        if (previousPosition == null) {
+            previousPosition = new Vector2f(position);
+        } else {
+            previousPosition.set(position);
+        }
+    }
+
+    /**
+     * @return whether the last tick moved the position.
+     */
+    public boolean movedInLastTick() {
+        return previousPosition != null && !previousPosition.equals(position);
+    }
+
+    /**
+     * @param alpha how far the frame is between the previous tick and the last one, see
+     *              {@link engine.util.Engine#alpha()}
+     * @return the x position between the one at the start of the last tick and the current one.
+     */
+    public float interpolateX(float alpha) {
+        if (previousPosition == null) return position.x;
+        return previousPosition.x + (position.x - previousPosition.x) * alpha;
+    }
+
+    /**
+     * @return the y position between the one at the start of the last tick and the current one.
+     */
+    public float interpolateY(float alpha) {
+        if (previousPosition == null) return position.y;
+        return previousPosition.y + (position.y - previousPosition.y) * alpha;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null) return false;
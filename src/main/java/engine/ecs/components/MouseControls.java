@@ -41,7 +41,7 @@ public class MouseControls extends Component {
             holdingObject.transform.position.x = MouseListener.getOrthoX() - (holdingObject.transform.scale.x / 2);
             holdingObject.transform.position.y = MouseListener.getOrthoY() - (holdingObject.transform.scale.y / 2);
 
-            if (MouseListener.mouseButtonDown(GLFW_MOUSE_BUTTON_LEFT)) {
+            if (MouseListener.getSnapshot().isButtonDown(GLFW_MOUSE_BUTTON_LEFT)) {
                 place();
             }
         }
@@ -0,0 +1,81 @@
+package engine.editor;
+
+import engine.graphics.GpuHandle;
+import engine.graphics.GpuResources;
+import imgui.ImGui;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Shows the estimated video memory of the GL objects that are alive, per type and per place they were created.
+ */
+public class GpuMemoryWindow {
+
+    public static void imgui() {
+        ImGui.begin("GPU Memory");
+
+        long total = GpuResources.getSizeInBytes();
+        long budget = GpuResources.getBudget();
+        if (budget > 0) {
+            ImGui.text("Total: " + formatBytes(total) + " of " + formatBytes(budget));
+        } else {
+            ImGui.text("Total: " + formatBytes(total));
+        }
+
+        if (ImGui.beginTable("gpuMemoryTypes", 3)) {
+            ImGui.tableSetupColumn("Type");
+            ImGui.tableSetupColumn("Objects");
+            ImGui.tableSetupColumn("Size");
+            ImGui.tableHeadersRow();
+            for (GpuHandle.Type type : GpuHandle.Type.values()) {
+                ImGui.tableNextRow();
+                ImGui.tableNextColumn();
+                ImGui.text(type.name());
+                ImGui.tableNextColumn();
+                ImGui.text(String.valueOf(GpuResources.getAliveCount(type)));
+                ImGui.tableNextColumn();
+                ImGui.text(formatBytes(GpuResources.getSizeInBytes(type)));
+            }
+            ImGui.endTable();
+        }
+
+        if (ImGui.collapsingHeader("Allocations")) {
+            // Objects created by the same code for the same owner are shown as one row, the largest first
+            Map<String, long[]> groups = new TreeMap<>();
+            for (GpuHandle handle : GpuResources.getAlive()) {
+                String key = handle.getType() + " " + handle.getOwner() + " @ " + handle.getCreationSite();
+                long[] group = groups.computeIfAbsent(key, k -> new long[2]);
+                group[0]++;
+                group[1] += handle.getSizeInBytes();
+            }
+
+            if (ImGui.beginTable("gpuMemoryAllocations", 3)) {
+                ImGui.tableSetupColumn("Allocation");
+                ImGui.tableSetupColumn("Objects");
+                ImGui.tableSetupColumn("Size");
+                ImGui.tableHeadersRow();
+                groups.entrySet().stream()
+                        .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                        .forEach(entry -> {
+                            ImGui.tableNextRow();
+                            ImGui.tableNextColumn();
+                            ImGui.text(entry.getKey());
+                            ImGui.tableNextColumn();
+                            ImGui.text(String.valueOf(entry.getValue()[0]));
+                            ImGui.tableNextColumn();
+                            ImGui.text(formatBytes(entry.getValue()[1]));
+                        });
+                ImGui.endTable();
+            }
+        }
+
+        ImGui.end();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -3,7 +3,6 @@ package engine.graphics;
 import engine.util.Settings;
 import org.joml.Matrix4f;
 import org.joml.Vector2f;
-import org.joml.Vector3f;
 
 /**
  * The Camera class handles rendering transformations such as projection and view transformations,
@@ -23,6 +22,12 @@ public class Camera {
     /** The inverse of the view matrix, used for reverse transformations. */
     private Matrix4f inverseView;
 
+    /** The inverse of projection * view, transforms normalized device coordinates to world coordinates. */
+    private Matrix4f inverseViewProjection;
+
+    /** The position the view matrix was calculated for, the matrices are only recalculated when the camera moves. */
+    private final Vector2f viewPosition = new Vector2f(Float.NaN, Float.NaN);
+
     /** The position of the camera in the 2D scene. */
     public Vector2f position;
 
@@ -40,6 +45,7 @@ public class Camera {
         this.viewMatrix = new Matrix4f();
         this.inverseProjection = new Matrix4f();
         this.inverseView = new Matrix4f();
+        this.inverseViewProjection = new Matrix4f();
         adjustProjection();
     }
 
@@ -52,23 +58,34 @@ public class Camera {
         projectionMatrix.identity();
         projectionMatrix.ortho(0.0f, projectionSize.x, 0.0f, projectionSize.y, 0.0f, 100.0f);
         projectionMatrix.invert(inverseProjection);
+        // Force the view and the combined inverse to be recalculated
+        viewPosition.set(Float.NaN, Float.NaN);
     }
 
     /**
-     * Calculates and returns the view matrix based on the camera's current position.
-     *
-     * @return the view matrix representing the camera's view transformation
+     * Recalculates the view matrix and the inverse matrices if the camera moved since they were last calculated.
      */
-    public Matrix4f getViewMatrix() {
-        Vector3f cameraFront = new Vector3f(0.0f, 0.0f, -1.0f);
-        Vector3f cameraUp = new Vector3f(0.0f, 1.0f, 0.0f);
+    private void updateView() {
+        if (viewPosition.equals(position)) return;
+
         viewMatrix.identity();
         viewMatrix.lookAt(
-                new Vector3f(position.x, position.y, 20.0f),
-                cameraFront.add(position.x, position.y, 0.0f),
-                cameraUp
+                position.x, position.y, 20.0f,
+                position.x, position.y, -1.0f,
+                0.0f, 1.0f, 0.0f
         );
-        this.viewMatrix.invert(inverseView);
+        viewMatrix.invert(inverseView);
+        inverseView.mul(inverseProjection, inverseViewProjection);
+        viewPosition.set(position);
+    }
+
+    /**
+     * Returns the view matrix based on the camera's current position.
+     *
+     * @return the view matrix representing the camera's view transformation
+     */
+    public Matrix4f getViewMatrix() {
+        updateView();
         return viewMatrix;
     }
 
@@ -81,9 +98,18 @@ public class Camera {
     }
 
     public Matrix4f getInverseView() {
+        updateView();
         return this.inverseView;
     }
 
+    /**
+     * @return the inverse of projection * view, which transforms normalized device coordinates to world coordinates.
+     */
+    public Matrix4f getInverseViewProjection() {
+        updateView();
+        return this.inverseViewProjection;
+    }
+
     public Vector2f getProjectionSize() {
         return this.projectionSize;
     }
@@ -0,0 +1,218 @@
+package engine.graphics;
+
+import org.joml.Matrix4fc;
+
+/**
+ * The parts of a framebuffer that changed since the last frame, as a few rectangles in pixels.
+ * <p>
+ * Added rectangles are merged with the rectangles they overlap, so the rectangles never overlap and every pixel is
+ * drawn once. When there are more than {@link #MAX_RECTANGLES}, the two that grow the least when merged are merged.
+ * When more than {@link #FULL_REDRAW_FRACTION} of the framebuffer is damaged the region becomes {@link #isFull() full},
+ * drawing everything once is cheaper than drawing every pass once per rectangle.
+ */
+public class DamageRegion {
+    /** The most rectangles a region is split in, the passes draw once per rectangle */
+    public static final int MAX_RECTANGLES = 4;
+    /** The part of the framebuffer above which it is redrawn as a whole */
+    public static final float FULL_REDRAW_FRACTION = 0.5f;
+    /** Pixels added around every rectangle, for edges that round to the next pixel and the smoothing of text */
+    private static final int PADDING = 2;
+
+    // One slot more than the maximum, a rectangle is added before the region is merged back down
+    private final int[] minX = new int[MAX_RECTANGLES + 1];
+    private final int[] minY = new int[MAX_RECTANGLES + 1];
+    private final int[] maxX = new int[MAX_RECTANGLES + 1];
+    private final int[] maxY = new int[MAX_RECTANGLES + 1];
+    private int count = 0;
+    private boolean full = true;
+
+    private int width;
+    private int height;
+
+    /**
+     * Empties the region, called at the start of every frame.
+     *
+     * @param width  the width of the framebuffer in pixels
+     * @param height the height of the framebuffer in pixels
+     */
+    public void begin(int width, int height) {
+        this.width = width;
+        this.height = height;
+        count = 0;
+        full = false;
+    }
+
+    /**
+     * Damages the whole framebuffer, like after the camera moved.
+     */
+    public void markFull() {
+        full = true;
+        count = 0;
+    }
+
+    /**
+     * Damages the area a rectangle in world units covers on the screen.
+     *
+     * @param transform the projection times the view the rectangle is drawn with, an orthographic projection
+     */
+    public void addWorld(float x, float y, float worldWidth, float worldHeight, Matrix4fc transform) {
+        if (full) return;
+
+        float x0 = toPixelX(x, y, transform);
+        float x1 = toPixelX(x + worldWidth, y + worldHeight, transform);
+        float y0 = toPixelY(x, y, transform);
+        float y1 = toPixelY(x + worldWidth, y + worldHeight, transform);
+        add((int) Math.floor(Math.min(x0, x1)), (int) Math.floor(Math.min(y0, y1)),
+                (int) Math.ceil(Math.max(x0, x1)), (int) Math.ceil(Math.max(y0, y1)));
+    }
+
+    private float toPixelX(float x, float y, Matrix4fc transform) {
+        float ndc = transform.m00() * x + transform.m10() * y + transform.m30();
+        return (ndc + 1.0f) * 0.5f * width;
+    }
+
+    private float toPixelY(float x, float y, Matrix4fc transform) {
+        float ndc = transform.m01() * x + transform.m11() * y + transform.m31();
+        return (ndc + 1.0f) * 0.5f * height;
+    }
+
+    /**
+     * Damages a rectangle of pixels, the maximum coordinates are exclusive.
+     */
+    public void add(int x0, int y0, int x1, int y1) {
+        if (full) return;
+
+        x0 = Math.max(0, x0 - PADDING);
+        y0 = Math.max(0, y0 - PADDING);
+        x1 = Math.min(width, x1 + PADDING);
+        y1 = Math.min(height, y1 + PADDING);
+        if (x0 >= x1 || y0 >= y1) return;
+
+        minX[count] = x0;
+        minY[count] = y0;
+        maxX[count] = x1;
+        maxY[count] = y1;
+        count++;
+        merge();
+
+        if (area() > FULL_REDRAW_FRACTION * width * height) {
+            markFull();
+        }
+    }
+
+    /**
+     * Merges overlapping rectangles until none overlap, and the closest rectangles until there are at most
+     * {@link #MAX_RECTANGLES}.
+     */
+    private void merge() {
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < count && !merged; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    if (overlap(i, j)) {
+                        union(i, j);
+                        merged = true;
+                        break;
+                    }
+                }
+            }
+
+            if (!merged && count > MAX_RECTANGLES) {
+                int bestI = 0;
+                int bestJ = 1;
+                long bestGrowth = Long.MAX_VALUE;
+                for (int i = 0; i < count; i++) {
+                    for (int j = i + 1; j < count; j++) {
+                        long growth = unionArea(i, j) - area(i) - area(j);
+                        if (growth < bestGrowth) {
+                            bestGrowth = growth;
+                            bestI = i;
+                            bestJ = j;
+                        }
+                    }
+                }
+                // The union can overlap other rectangles, which the next pass merges
+                union(bestI, bestJ);
+                merged = true;
+            }
+        }
+    }
+
+    private boolean overlap(int i, int j) {
+        return minX[i] < maxX[j] && minX[j] < maxX[i] && minY[i] < maxY[j] && minY[j] < maxY[i];
+    }
+
+    /**
+     * Grows rectangle {@code i} to cover rectangle {@code j} and removes {@code j}.
+     */
+    private void union(int i, int j) {
+        minX[i] = Math.min(minX[i], minX[j]);
+        minY[i] = Math.min(minY[i], minY[j]);
+        maxX[i] = Math.max(maxX[i], maxX[j]);
+        maxY[i] = Math.max(maxY[i], maxY[j]);
+
+        int last = --count;
+        minX[j] = minX[last];
+        minY[j] = minY[last];
+        maxX[j] = maxX[last];
+        maxY[j] = maxY[last];
+    }
+
+    private long unionArea(int i, int j) {
+        long w = Math.max(maxX[i], maxX[j]) - Math.min(minX[i], minX[j]);
+        long h = Math.max(maxY[i], maxY[j]) - Math.min(minY[i], minY[j]);
+        return w * h;
+    }
+
+    private long area(int i) {
+        return (long) (maxX[i] - minX[i]) * (maxY[i] - minY[i]);
+    }
+
+    /**
+     * @return the amount of damaged pixels, the whole framebuffer when the region is full.
+     */
+    public long area() {
+        if (full) return (long) width * height;
+
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            area += area(i);
+        }
+        return area;
+    }
+
+    /**
+     * @return whether the whole framebuffer has to be drawn. The rectangles are empty then.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return whether nothing changed, the framebuffer still holds the frame.
+     */
+    public boolean isEmpty() {
+        return !full && count == 0;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int getX(int i) {
+        return minX[i];
+    }
+
+    public int getY(int i) {
+        return minY[i];
+    }
+
+    public int getWidth(int i) {
+        return maxX[i] - minX[i];
+    }
+
+    public int getHeight(int i) {
+        return maxY[i] - minY[i];
+    }
+}
@@ -0,0 +1,78 @@
+package engine.graphics;
+
+import engine.util.Settings;
+
+/**
+ * Decides in which iterations of the game loop a frame is drawn, see {@link Settings#ON_DEMAND_RENDERING}.
+ * <p>
+ * Input, a resize, a changed observable or a running animation {@link #requestRedraw() request a redraw}. A request
+ * draws a few frames, so ImGui can settle and the render worker, which is a frame behind, catches up. Without a
+ * request the loop waits for events until the next tick of the game logic is due, instead of drawing the same frame
+ * again.
+ * <p>
+ * When the window doesn't have focus at most {@link #BACKGROUND_FRAME_RATE} frames are drawn per second, and nothing
+ * is drawn while it is minimized. The game logic keeps running in both cases.
+ */
+public final class FrameScheduler {
+    /** The amount of frames a redraw request draws */
+    private static final int FRAMES_PER_REQUEST = 3;
+    /** The most frames per second that are drawn while the window doesn't have focus */
+    public static final int BACKGROUND_FRAME_RATE = 10;
+
+    private static int framesLeft = FRAMES_PER_REQUEST;
+    private static boolean focused = true;
+    private static boolean minimized = false;
+    private static double lastFrameTime = 0;
+
+    private FrameScheduler() {
+    }
+
+    /**
+     * Makes sure the next frames are drawn. Can be called as often as needed, the requests don't add up.
+     */
+    public static void requestRedraw() {
+        framesLeft = FRAMES_PER_REQUEST;
+    }
+
+    static void setFocused(boolean focused) {
+        FrameScheduler.focused = focused;
+        requestRedraw();
+    }
+
+    static void setMinimized(boolean minimized) {
+        FrameScheduler.minimized = minimized;
+        requestRedraw();
+    }
+
+    /**
+     * @param now the time of {@link org.lwjgl.glfw.GLFW#glfwGetTime()}
+     * @return whether a frame is drawn in this iteration of the loop.
+     */
+    static boolean shouldRender(double now) {
+        if (minimized) return false;
+        if (framesLeft == 0 && Settings.ON_DEMAND_RENDERING) return false;
+        return focused || now - lastFrameTime >= 1.0 / BACKGROUND_FRAME_RATE;
+    }
+
+    /**
+     * @param now            the time of {@link org.lwjgl.glfw.GLFW#glfwGetTime()}
+     * @param untilNextTick  the seconds until the next tick of the game logic is due
+     * @return how long the loop can wait for events before the next iteration, 0 to only poll them.
+     */
+    static double waitTime(double now, double untilNextTick) {
+        if (minimized) return untilNextTick;
+        if (framesLeft == 0 && Settings.ON_DEMAND_RENDERING) return untilNextTick;
+        if (focused) return 0;
+        return Math.max(0, Math.min(untilNextTick, lastFrameTime + 1.0 / BACKGROUND_FRAME_RATE - now));
+    }
+
+    /**
+     * Called after a frame was drawn.
+     */
+    static void frameRendered(double now) {
+        if (framesLeft > 0) {
+            framesLeft--;
+        }
+        lastFrameTime = now;
+    }
+}
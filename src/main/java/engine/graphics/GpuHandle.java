@@ -0,0 +1,120 @@
+package engine.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * A reference counted OpenGL object, like a texture or a vertex buffer. Handles are created with
+ * {@link GpuResources#track}.
+ * <p>
+ * A handle starts with one reference, held by whoever created the object. Anything else that needs the object to stay
+ * alive calls {@link #retain()}, and every reference is given back with {@link #release()}. When the last reference is
+ * released the object is queued for deletion, it is deleted on the GL thread at the end of the frame, so a draw call of
+ * the current frame can still use it.
+ * <p>
+ * The handle also records an estimate of the video memory of the object, set by its owner once the storage is
+ * allocated, and the place in the code that created it. Both are shown in the GPU memory panel.
+ */
+public final class GpuHandle {
+    public enum Type {
+        TEXTURE(GL11::glDeleteTextures),
+        FRAMEBUFFER(GL30::glDeleteFramebuffers),
+        RENDERBUFFER(GL30::glDeleteRenderbuffers),
+        BUFFER(GL15::glDeleteBuffers),
+        VERTEX_ARRAY(GL30::glDeleteVertexArrays);
+
+        final IntConsumer delete;
+
+        Type(IntConsumer delete) {
+            this.delete = delete;
+        }
+    }
+
+    private final Type type;
+    private final int id;
+    /** Describes what the object is for, shown in the leak report */
+    private final String owner;
+    /** The first method outside the resource classes that created the object, like {@code UICache.render:57} */
+    private final String creationSite;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private long sizeInBytes;
+
+    GpuHandle(Type type, int id, String owner, String creationSite) {
+        this.type = type;
+        this.id = id;
+        this.owner = owner;
+        this.creationSite = creationSite;
+    }
+
+    public GpuHandle retain() {
+        if (references.getAndIncrement() <= 0) {
+            assert false : "Error: (GpuHandle) Retained " + this + " after it was released";
+        }
+        return this;
+    }
+
+    /**
+     * Gives back a reference, the object is queued for deletion when it was the last one. Can be called from any
+     * thread.
+     */
+    public void release() {
+        int left = references.decrementAndGet();
+        if (left == 0) {
+            GpuResources.queueDeletion(this);
+        } else if (left < 0) {
+            assert false : "Error: (GpuHandle) Released " + this + " more often than it was retained";
+        }
+    }
+
+    /**
+     * @return whether the handle still has references, a handle without references is deleted or about to be.
+     */
+    public boolean isAlive() {
+        return references.get() > 0;
+    }
+
+    void delete() {
+        type.delete.accept(id);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getCreationSite() {
+        return creationSite;
+    }
+
+    /**
+     * @return the estimated amount of video memory of the object, 0 for objects without storage like a vertex array.
+     */
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Sets the estimated amount of video memory of the object, called when its storage is allocated or resized.
+     */
+    public GpuHandle setSizeInBytes(long sizeInBytes) {
+        this.sizeInBytes = sizeInBytes;
+        GpuResources.checkBudget();
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + id + " (" + owner + ")";
+    }
+}
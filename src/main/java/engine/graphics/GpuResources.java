@@ -0,0 +1,170 @@
+package engine.graphics;
+
+import engine.graphics.renderer.Framebuffer;
+import engine.graphics.renderer.RenderBatch;
+import engine.graphics.renderer.Renderer;
+import engine.graphics.renderer.Texture;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps track of every OpenGL object that is alive, and deletes the objects whose {@link GpuHandle handles} were
+ * released.
+ * <p>
+ * Deleting is deferred to {@link #deletePending()}, which is called on the GL thread once per frame after the buffers
+ * are swapped. Whatever is still alive when the game closes, after everything that is owned was released, is listed by
+ * {@link #reportLeaks()}.
+ * <p>
+ * The estimated video memory of the objects is added up per {@link GpuHandle.Type type}. A budget can be set with
+ * {@link #setBudget(long)}, going over it is reported once.
+ */
+public class GpuResources {
+    /** Classes that create GL objects for others, the creation site is the first method outside of them */
+    private static final Set<String> RESOURCE_CLASSES = Set.of(
+            GpuResources.class.getName(), Texture.class.getName(), Framebuffer.class.getName(),
+            RenderBatch.class.getName(), Renderer.class.getName()
+    );
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private static final Set<GpuHandle> alive = new LinkedHashSet<>();
+    private static final Queue<GpuHandle> pendingDeletion = new ConcurrentLinkedQueue<>();
+
+    /** Video memory budget in bytes, 0 if there is none */
+    private static long budget = 0;
+    private static boolean overBudgetReported = false;
+
+    /**
+     * Starts tracking a GL object that was just created. Has to be called on the GL thread.
+     *
+     * @param owner what the object is for, like the file a texture was loaded from
+     * @return the handle, with one reference that belongs to the caller
+     */
+    public static GpuHandle track(GpuHandle.Type type, int id, String owner) {
+        GpuHandle handle = new GpuHandle(type, id, owner, findCreationSite());
+        alive.add(handle);
+        return handle;
+    }
+
+    private static String findCreationSite() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> !RESOURCE_CLASSES.contains(frame.getClassName()))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1);
+                    return className + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                })
+                .orElse("unknown"));
+    }
+
+    static void queueDeletion(GpuHandle handle) {
+        pendingDeletion.add(handle);
+    }
+
+    /**
+     * Deletes the objects that were released since the last call. Has to be called on the GL thread.
+     */
+    public static void deletePending() {
+        GpuHandle handle;
+        while ((handle = pendingDeletion.poll()) != null) {
+            handle.delete();
+            alive.remove(handle);
+        }
+    }
+
+    /**
+     * @return the objects that are alive, in the order they were created.
+     */
+    public static Collection<GpuHandle> getAlive() {
+        return Collections.unmodifiableSet(alive);
+    }
+
+    /**
+     * @return the amount of GL objects of the type that are alive.
+     */
+    public static int getAliveCount(GpuHandle.Type type) {
+        int count = 0;
+        for (GpuHandle handle : alive) {
+            if (handle.getType() == type) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static int getAliveCount() {
+        return alive.size();
+    }
+
+    /**
+     * @return the estimated video memory in bytes of the objects of the type that are alive.
+     */
+    public static long getSizeInBytes(GpuHandle.Type type) {
+        long size = 0;
+        for (GpuHandle handle : alive) {
+            if (handle.getType() == type) {
+                size += handle.getSizeInBytes();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the estimated video memory in bytes of all objects that are alive.
+     */
+    public static long getSizeInBytes() {
+        long size = 0;
+        for (GpuHandle handle : alive) {
+            size += handle.getSizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * @param bytes the video memory the game should stay below, 0 for no budget
+     */
+    public static void setBudget(long bytes) {
+        budget = bytes;
+        overBudgetReported = false;
+        checkBudget();
+    }
+
+    public static long getBudget() {
+        return budget;
+    }
+
+    static void checkBudget() {
+        if (budget <= 0 || overBudgetReported) return;
+
+        long size = getSizeInBytes();
+        if (size > budget) {
+            System.err.println("GPU memory is over budget: " + size + " of " + budget + " bytes");
+            overBudgetReported = true;
+        }
+    }
+
+    /**
+     * Prints the objects that are still alive, grouped by their type and owner. Called when the game closes, after
+     * everything was released, so every object in the report was leaked.
+     */
+    public static void reportLeaks() {
+        if (alive.isEmpty()) return;
+
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (GpuHandle handle : alive) {
+            String key = handle.getType() + " (" + handle.getOwner() + ", created in " + handle.getCreationSite() + ")";
+            counts.merge(key, 1, Integer::sum);
+        }
+
+        System.err.println("GPU resources that were never released: " + alive.size());
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            System.err.println("  " + entry.getValue() + "x " + entry.getKey());
+        }
+    }
+}
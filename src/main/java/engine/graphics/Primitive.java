@@ -2,8 +2,6 @@ package engine.graphics;
 
 import org.lwjgl.opengl.GL11;
 
-import java.util.function.BiConsumer;
-
 /**
  * Enum representing different types of primitives that can be rendered
  */
@@ -53,12 +51,25 @@ public enum Primitive {
     /**
      * Puts index data in the provided int buffer
      */
-    public final BiConsumer<int[], Integer> elementCreation;
+    public final ElementCreation elementCreation;
 
-    Primitive(int vertexCount, int elementCount, int openglPrimitive, BiConsumer<int[], Integer> elementCreation) {
+    Primitive(int vertexCount, int elementCount, int openglPrimitive, ElementCreation elementCreation) {
         this.vertexCount = vertexCount;
         this.elementCount = elementCount;
         this.openglPrimitive = openglPrimitive;
         this.elementCreation = elementCreation;
     }
+
+    /**
+     * Writes the indices of a single primitive. Takes the index as an int, so filling a buffer doesn't box every
+     * primitive.
+     */
+    @FunctionalInterface
+    public interface ElementCreation {
+        /**
+         * @param elements the index buffer, the primitive starts at {@code index * elementCount}
+         * @param index    the index of the primitive in the batch
+         */
+        void accept(int[] elements, int index);
+    }
 }
\ No newline at end of file
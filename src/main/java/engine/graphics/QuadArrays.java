@@ -0,0 +1,117 @@
+package engine.graphics;
+
+import engine.util.Color;
+
+import java.util.Arrays;
+
+/**
+ * The quads of a frame stored as a structure of arrays: one array per value instead of one object per quad.
+ * <p>
+ * Every quad is an axis aligned rectangle with a rectangle of texture coordinates, a color packed with
+ * {@link Color#toRGBA8()}, a texture slot and the extra float of {@link VertexLayout#SPRITE_WITH_DATA}. A
+ * {@link VertexLayout#writeQuads} turns them into interleaved vertices, many quads at a time.
+ */
+public class QuadArrays {
+    private static final int INITIAL_CAPACITY = 64;
+
+    public float[] x, y;
+    public float[] width, height;
+    /** Texture coordinates of the bottom left corner */
+    public float[] u0, v0;
+    /** Texture coordinates of the top right corner */
+    public float[] u1, v1;
+    /** 0xRRGGBBAA */
+    public int[] color;
+    public float[] texId;
+    public float[] data;
+
+    private int size;
+
+    public QuadArrays() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public QuadArrays(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        width = new float[capacity];
+        height = new float[capacity];
+        u0 = new float[capacity];
+        v0 = new float[capacity];
+        u1 = new float[capacity];
+        v1 = new float[capacity];
+        color = new int[capacity];
+        texId = new float[capacity];
+        data = new float[capacity];
+    }
+
+    /**
+     * Adds a quad, the arrays double in size when they are full.
+     *
+     * @param rgba  the color, packed with {@link Color#toRGBA8()}
+     * @param texId the texture slot of the batch the quad goes to, 0 for no texture
+     */
+    public void add(float x, float y, float width, float height, float u0, float v0, float u1, float v1, int rgba,
+                    float texId, float data) {
+        if (size == this.x.length) {
+            grow(size * 2);
+        }
+
+        this.x[size] = x;
+        this.y[size] = y;
+        this.width[size] = width;
+        this.height[size] = height;
+        this.u0[size] = u0;
+        this.v0[size] = v0;
+        this.u1[size] = u1;
+        this.v1[size] = v1;
+        this.color[size] = rgba;
+        this.texId[size] = texId;
+        this.data[size] = data;
+        size++;
+    }
+
+    private void grow(int capacity) {
+        capacity = Math.max(capacity, INITIAL_CAPACITY);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        u0 = Arrays.copyOf(u0, capacity);
+        v0 = Arrays.copyOf(v0, capacity);
+        u1 = Arrays.copyOf(u1, capacity);
+        v1 = Arrays.copyOf(v1, capacity);
+        color = Arrays.copyOf(color, capacity);
+        texId = Arrays.copyOf(texId, capacity);
+        data = Arrays.copyOf(data, capacity);
+    }
+
+    /**
+     * Makes this a copy of the quads of another.
+     */
+    public void set(QuadArrays other) {
+        if (x.length < other.size) {
+            grow(other.x.length);
+        }
+        System.arraycopy(other.x, 0, x, 0, other.size);
+        System.arraycopy(other.y, 0, y, 0, other.size);
+        System.arraycopy(other.width, 0, width, 0, other.size);
+        System.arraycopy(other.height, 0, height, 0, other.size);
+        System.arraycopy(other.u0, 0, u0, 0, other.size);
+        System.arraycopy(other.v0, 0, v0, 0, other.size);
+        System.arraycopy(other.u1, 0, u1, 0, other.size);
+        System.arraycopy(other.v1, 0, v1, 0, other.size);
+        System.arraycopy(other.color, 0, color, 0, other.size);
+        System.arraycopy(other.texId, 0, texId, 0, other.size);
+        System.arraycopy(other.data, 0, data, 0, other.size);
+        size = other.size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
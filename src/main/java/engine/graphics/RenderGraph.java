@@ -0,0 +1,237 @@
+package engine.graphics;
+
+import engine.graphics.renderer.Framebuffer;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.lwjgl.opengl.GL11.*;
+
+/**
+ * Draws a frame as a list of {@link RenderPass passes} that declare which {@link RenderTarget targets} they draw into
+ * and read from.
+ * <p>
+ * The order of the passes follows from the targets: a pass that reads a target runs after every pass that draws into
+ * it, and passes that draw into the same target run in the order they were added. Within that order passes with the
+ * same target and blending are put next to each other, they are drawn with one bind of the target.
+ * <p>
+ * Every frame the graph starts from the targets that are used: the {@link #addOutput(RenderTarget) outputs}, and the
+ * targets whose {@link #addConsumer consumer} reads them this frame. Passes whose target isn't used are skipped, like
+ * the picking pass when there is nothing under the mouse to pick.
+ */
+public class RenderGraph {
+    private final List<RenderPass> passes = new ArrayList<>();
+    private final Map<RenderTarget, Framebuffer> framebuffers = new EnumMap<>(RenderTarget.class);
+    private final Set<RenderTarget> outputs = EnumSet.noneOf(RenderTarget.class);
+    /** Targets that are read outside of the graph, with whether they are read this frame */
+    private final Map<RenderTarget, BooleanSupplier> consumers = new EnumMap<>(RenderTarget.class);
+
+    /** The passes in the order they run, null when a pass was added since the order was worked out */
+    private List<RenderPass> schedule = null;
+    /** Whether the pass at the same index of {@link #schedule} runs this frame */
+    private boolean[] runs = new boolean[0];
+    private final Set<RenderTarget> usedTargets = EnumSet.noneOf(RenderTarget.class);
+    private final List<RenderPass> executedPasses = new ArrayList<>();
+
+    public void addPass(RenderPass pass) {
+        passes.add(pass);
+        schedule = null;
+    }
+
+    /**
+     * Sets the framebuffer the graph binds for the passes of a target. Passes of a target without a framebuffer bind
+     * what they draw into themselves.
+     */
+    public void setFramebuffer(RenderTarget target, Framebuffer framebuffer) {
+        framebuffers.put(target, framebuffer);
+    }
+
+    /**
+     * Marks a target as the result of the frame, it is drawn every frame.
+     */
+    public void addOutput(RenderTarget target) {
+        outputs.add(target);
+    }
+
+    /**
+     * Registers a reader of a target outside of the graph, the target is only drawn in the frames the reader needs it.
+     */
+    public void addConsumer(RenderTarget target, BooleanSupplier isReading) {
+        consumers.put(target, isReading);
+    }
+
+    /**
+     * Removes all passes, framebuffers, outputs and consumers, called before the passes of another scene are added.
+     */
+    public void clear() {
+        passes.clear();
+        framebuffers.clear();
+        outputs.clear();
+        consumers.clear();
+        executedPasses.clear();
+        schedule = null;
+    }
+
+    // =================================================================================================================
+    // EXECUTION
+    // =================================================================================================================
+
+    /**
+     * Draws the passes that are needed this frame, in order.
+     */
+    public void execute() {
+        List<RenderPass> schedule = getSchedule();
+
+        // Walk back from the targets that are used, a pass that runs makes its inputs used as well
+        usedTargets.clear();
+        usedTargets.addAll(outputs);
+        for (Map.Entry<RenderTarget, BooleanSupplier> consumer : consumers.entrySet()) {
+            if (consumer.getValue().getAsBoolean()) {
+                usedTargets.add(consumer.getKey());
+            }
+        }
+        for (int i = schedule.size() - 1; i >= 0; i--) {
+            RenderPass pass = schedule.get(i);
+            runs[i] = usedTargets.contains(pass.getOutput()) && pass.hasWork();
+            if (runs[i]) {
+                usedTargets.addAll(pass.getInputs());
+            }
+        }
+
+        executedPasses.clear();
+        RenderPass previous = null;
+        boolean blending = true;
+        for (int i = 0; i < schedule.size(); i++) {
+            if (!runs[i]) continue;
+            RenderPass pass = schedule.get(i);
+            Framebuffer framebuffer = framebuffers.get(pass.getOutput());
+
+            // Compatible passes share the bind of the target of the first one
+            if (!pass.isCompatible(previous) || framebuffer == null) {
+                unbind(previous);
+                if (pass.usesBlending() != blending) {
+                    blending = pass.usesBlending();
+                    setBlending(blending);
+                }
+                if (framebuffer != null) {
+                    framebuffer.bind();
+                    glViewport(0, 0, Window.getWidth(), Window.getHeight());
+                }
+            }
+
+            pass.execute();
+            executedPasses.add(pass);
+            previous = pass;
+        }
+        unbind(previous);
+        if (!blending) {
+            setBlending(true);
+        }
+    }
+
+    private void unbind(RenderPass pass) {
+        if (pass == null) return;
+
+        Framebuffer framebuffer = framebuffers.get(pass.getOutput());
+        if (framebuffer != null) {
+            framebuffer.unbind();
+        }
+    }
+
+    private static void setBlending(boolean blending) {
+        if (blending) {
+            glEnable(GL_BLEND);
+        } else {
+            glDisable(GL_BLEND);
+        }
+    }
+
+    // =================================================================================================================
+    // SCHEDULING
+    // =================================================================================================================
+
+    /**
+     * Orders the passes so every pass runs after the passes it depends on. Of the passes that can run next, one that is
+     * compatible with the previous pass is taken first, then the one that was added first.
+     */
+    private List<RenderPass> schedule() {
+        int count = passes.size();
+        int[] dependencies = new int[count];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < count; j++) {
+                if (dependsOn(i, j)) {
+                    dependencies[i]++;
+                }
+            }
+        }
+
+        List<RenderPass> order = new ArrayList<>(count);
+        boolean[] scheduled = new boolean[count];
+        RenderPass previous = null;
+        while (order.size() < count) {
+            int next = -1;
+            for (int i = 0; i < count; i++) {
+                if (scheduled[i] || dependencies[i] > 0) continue;
+                if (next == -1) {
+                    next = i;
+                }
+                if (passes.get(i).isCompatible(previous)) {
+                    next = i;
+                    break;
+                }
+            }
+
+            if (next == -1) {
+                assert false : "Error: (RenderGraph) The passes depend on each other in a cycle: " + passes;
+                return new ArrayList<>(passes);
+            }
+
+            scheduled[next] = true;
+            previous = passes.get(next);
+            order.add(previous);
+            for (int i = 0; i < count; i++) {
+                if (dependsOn(i, next)) {
+                    dependencies[i]--;
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @return whether pass {@code a} has to run after pass {@code b}.
+     */
+    private boolean dependsOn(int a, int b) {
+        if (a == b) return false;
+
+        RenderPass passA = passes.get(a);
+        RenderPass passB = passes.get(b);
+        // A pass reads a target after everything was drawn into it
+        if (passA.getInputs().contains(passB.getOutput())) return true;
+        // Passes that draw into the same target keep the order they were added in
+        return passA.getOutput() == passB.getOutput() && b < a;
+    }
+
+    /**
+     * @return the passes that ran in the last frame, in the order they ran.
+     */
+    public List<RenderPass> getExecutedPasses() {
+        return executedPasses;
+    }
+
+    /**
+     * @return all passes, in the order they run when none are skipped.
+     */
+    public List<RenderPass> getSchedule() {
+        if (schedule == null) {
+            schedule = schedule();
+            runs = new boolean[schedule.size()];
+        }
+        return schedule;
+    }
+}
@@ -0,0 +1,94 @@
+package engine.graphics;
+
+import engine.graphics.renderer.Renderer;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A step of the {@link RenderGraph}: it draws into one {@link RenderTarget} and can read others. The graph binds the
+ * target and sets the blending of the pass before it runs, so the pass itself only draws.
+ */
+public class RenderPass {
+    private final String name;
+    private final RenderTarget output;
+    private final Set<RenderTarget> inputs = EnumSet.noneOf(RenderTarget.class);
+    private final Runnable execute;
+    private boolean blending = true;
+    /** Whether the pass has anything to draw this frame */
+    private BooleanSupplier hasWork = () -> true;
+
+    public RenderPass(String name, RenderTarget output, Runnable execute) {
+        this.name = name;
+        this.output = output;
+        this.execute = execute;
+    }
+
+    /**
+     * A pass that {@link Renderer#draw() draws} a renderer, with the blending the renderer needs.
+     */
+    public RenderPass(String name, RenderTarget output, Renderer renderer) {
+        this(name, output, renderer::draw);
+        this.blending = renderer.usesBlending();
+    }
+
+    /**
+     * Declares targets the pass reads, the passes that draw into them run before this one.
+     */
+    public RenderPass reads(RenderTarget... targets) {
+        Collections.addAll(inputs, targets);
+        return this;
+    }
+
+    public RenderPass blending(boolean blending) {
+        this.blending = blending;
+        return this;
+    }
+
+    /**
+     * Skips the pass in the frames the condition is false, like a pass of lines when there are none.
+     */
+    public RenderPass onlyWhen(BooleanSupplier hasWork) {
+        this.hasWork = hasWork;
+        return this;
+    }
+
+    /**
+     * @return whether the passes can be drawn one after the other without binding the target or changing the state
+     * in between.
+     */
+    boolean isCompatible(RenderPass other) {
+        return other != null && output == other.output && blending == other.blending;
+    }
+
+    boolean hasWork() {
+        return hasWork.getAsBoolean();
+    }
+
+    void execute() {
+        execute.run();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RenderTarget getOutput() {
+        return output;
+    }
+
+    public Set<RenderTarget> getInputs() {
+        return Collections.unmodifiableSet(inputs);
+    }
+
+    public boolean usesBlending() {
+        return blending;
+    }
+
+    @Override
+    public String toString() {
+        return name + " -> " + output;
+    }
+}
@@ -0,0 +1,15 @@
+package engine.graphics;
+
+/**
+ * What the passes of the {@link RenderGraph} draw into and read from.
+ */
+public enum RenderTarget {
+    /** The ids of the interactive game objects, read back under the mouse */
+    PICKING,
+    /** The textures of the cached UI subtrees, every cache binds its own framebuffer */
+    UI_CACHES,
+    /** The framebuffer of the window, the game with its UI */
+    SCENE_COLOR,
+    /** The window itself, with the ImGui windows that show the scene */
+    VIEWPORT
+}
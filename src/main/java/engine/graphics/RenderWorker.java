@@ -0,0 +1,63 @@
+package engine.graphics;
+
+import engine.graphics.renderer.Renderer;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the batches of the renderers that {@link Renderer#canBuildAhead() can build ahead} on a thread of its own,
+ * while the main thread updates the next frame. The renderers build from the snapshot they extracted at the end of the
+ * previous update, so the frame that is drawn is one frame behind the one that is updated.
+ * <p>
+ * The OpenGL context stays on the main thread: GLFW, ImGui, the glyph atlases and the textures that are loaded during
+ * the update all need it there. The worker only fills the batches on the CPU, the main thread uploads and draws them.
+ */
+public class RenderWorker {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Render worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pending = null;
+
+    /**
+     * Starts building the renderers that can build ahead. The last build has to be {@link #await() awaited} first.
+     */
+    public void build(List<Renderer> renderers) {
+        assert pending == null : "Error: (RenderWorker) The last build wasn't awaited";
+        pending = executor.submit(() -> {
+            for (Renderer renderer : renderers) {
+                if (renderer.canBuildAhead()) {
+                    renderer.build();
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until the batches of the last build are filled. Has to be called before the renderers are drawn or
+     * disposed.
+     */
+    public void await() {
+        if (pending == null) return;
+
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error: (RenderWorker) Building the batches failed");
+            e.getCause().printStackTrace();
+        }
+        pending = null;
+    }
+
+    public void shutdown() {
+        await();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,177 @@
+package engine.graphics;
+
+import engine.util.Color;
+import org.joml.Vector2f;
+
+import java.util.Arrays;
+
+/**
+ * The attributes of a vertex, in the order the shader expects them.
+ * <p>
+ * A layout that matches one of the sprite layouts has a {@link QuadWriter}, which writes the four corners of a sprite in
+ * one call. The order of the attributes is only written down once, in {@link #writeVertex}, instead of in every
+ * renderer, and there are no capacity checks between the stores.
+ */
+public final class VertexLayout {
+    private static final ShaderDatatype[] SPRITE_ATTRIBUTES = {
+            ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT4, ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT
+    };
+    private static final ShaderDatatype[] SPRITE_WITH_DATA_ATTRIBUTES = {
+            ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT4, ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT, ShaderDatatype.FLOAT
+    };
+
+    /** Position, color, texture coordinates and texture slot */
+    public static final VertexLayout SPRITE = new VertexLayout(SPRITE_ATTRIBUTES.clone());
+    /** {@link #SPRITE} with one more float per sprite, like the cooldown of a sprite or the id of its game object */
+    public static final VertexLayout SPRITE_WITH_DATA = new VertexLayout(SPRITE_WITH_DATA_ATTRIBUTES.clone());
+
+    private static final float INV_255 = 1.0f / 255.0f;
+
+    private final ShaderDatatype[] attributes;
+    /** Amount of floats/ints in a single vertex */
+    private final int floatCount;
+    /** Amount of bytes for a single vertex */
+    private final int sizeInBytes;
+    /** null if the layout isn't a sprite layout */
+    private final QuadWriter quadWriter;
+    /** Whether the layout is {@link #SPRITE_WITH_DATA}, the vertices of its quads end with the extra float */
+    private final boolean withData;
+
+    public VertexLayout(ShaderDatatype... attributes) {
+        this.attributes = attributes;
+
+        int floats = 0;
+        int bytes = 0;
+        for (ShaderDatatype s : attributes) {
+            floats += s.count;
+            bytes += s.sizeInBytes;
+        }
+        this.floatCount = floats;
+        this.sizeInBytes = bytes;
+
+        if (Arrays.equals(attributes, SPRITE_ATTRIBUTES)) {
+            quadWriter = VertexLayout::writeSprite;
+            withData = false;
+        } else if (Arrays.equals(attributes, SPRITE_WITH_DATA_ATTRIBUTES)) {
+            quadWriter = VertexLayout::writeSpriteWithData;
+            withData = true;
+        } else {
+            quadWriter = null;
+            withData = false;
+        }
+    }
+
+    public ShaderDatatype[] attributes() {
+        return attributes;
+    }
+
+    public int floatCount() {
+        return floatCount;
+    }
+
+    public int sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * @return the writer for quads in this layout, or null if the layout isn't a sprite layout.
+     */
+    public QuadWriter quadWriter() {
+        return quadWriter;
+    }
+
+    /**
+     * Writes the four corners of a quad to a vertex array, in the order of {@link Primitive#QUAD}: top right, bottom right,
+     * bottom left and top left.
+     */
+    @FunctionalInterface
+    public interface QuadWriter {
+        /**
+         * @param vertices  the array to write to, it has room for the quad at {@code offset}
+         * @param texCoords the texture coordinates of the four corners
+         * @param data      the extra float of {@link #SPRITE_WITH_DATA}, ignored by other layouts
+         * @return the offset after the quad
+         */
+        int write(float[] vertices, int offset, float x, float y, float width, float height, Color color,
+                  Vector2f[] texCoords, float texId, float data);
+    }
+
+    /**
+     * Writes a range of {@link QuadArrays quads}, unpacking the color of every quad.
+     *
+     * @param vertices the array to write to, it has room for {@code count} quads at {@code offset}
+     * @return the offset after the last quad
+     * @throws IllegalArgumentException if the layout isn't a sprite layout
+     */
+    public int writeQuads(QuadArrays quads, int from, int count, float[] vertices, int offset) {
+        if (quadWriter == null) {
+            throw new IllegalArgumentException("Error: (VertexLayout) Only quads in a sprite layout can be written, not "
+                    + Arrays.toString(attributes));
+        }
+
+        int o = offset;
+        for (int i = from; i < from + count; i++) {
+            int rgba = quads.color[i];
+            float r = (rgba >>> 24) * INV_255;
+            float g = ((rgba >>> 16) & 0xFF) * INV_255;
+            float b = ((rgba >>> 8) & 0xFF) * INV_255;
+            float a = (rgba & 0xFF) * INV_255;
+            float x = quads.x[i];
+            float y = quads.y[i];
+            o = writeCorners(vertices, o, withData, x, y, x + quads.width[i], y + quads.height[i], r, g, b, a,
+                    quads.u1[i], quads.v1[i], quads.u1[i], quads.v0[i], quads.u0[i], quads.v0[i], quads.u0[i],
+                    quads.v1[i], quads.texId[i], quads.data[i]);
+        }
+        return o;
+    }
+
+    private static int writeSprite(float[] v, int o, float x, float y, float width, float height, Color color,
+                                   Vector2f[] texCoords, float texId, float data) {
+        return writeCorners(v, o, false, x, y, x + width, y + height, color.r(), color.g(), color.b(), color.a(),
+                texCoords[0].x, texCoords[0].y, texCoords[1].x, texCoords[1].y,
+                texCoords[2].x, texCoords[2].y, texCoords[3].x, texCoords[3].y, texId, data);
+    }
+
+    private static int writeSpriteWithData(float[] v, int o, float x, float y, float width, float height, Color color,
+                                           Vector2f[] texCoords, float texId, float data) {
+        return writeCorners(v, o, true, x, y, x + width, y + height, color.r(), color.g(), color.b(), color.a(),
+                texCoords[0].x, texCoords[0].y, texCoords[1].x, texCoords[1].y,
+                texCoords[2].x, texCoords[2].y, texCoords[3].x, texCoords[3].y, texId, data);
+    }
+
+    /**
+     * The corners in the order of {@link Primitive#QUAD}, with the texture coordinates of each corner.
+     */
+    private static int writeCorners(float[] v, int o, boolean withData, float left, float bottom, float right,
+                                    float top, float r, float g, float b, float a,
+                                    float topRightU, float topRightV, float bottomRightU, float bottomRightV,
+                                    float bottomLeftU, float bottomLeftV, float topLeftU, float topLeftV,
+                                    float texId, float data) {
+        o = writeVertex(v, o, withData, right, top, r, g, b, a, topRightU, topRightV, texId, data);
+        o = writeVertex(v, o, withData, right, bottom, r, g, b, a, bottomRightU, bottomRightV, texId, data);
+        o = writeVertex(v, o, withData, left, bottom, r, g, b, a, bottomLeftU, bottomLeftV, texId, data);
+        return writeVertex(v, o, withData, left, top, r, g, b, a, topLeftU, topLeftV, texId, data);
+    }
+
+    /**
+     * The attributes of a sprite vertex in the order of {@link #SPRITE} and {@link #SPRITE_WITH_DATA}, this is the
+     * only place that order is written down.
+     */
+    private static int writeVertex(float[] v, int o, boolean withData, float x, float y, float r, float g, float b,
+                                   float a, float u, float uvY, float texId, float data) {
+        v[o] = x;
+        v[o + 1] = y;
+        v[o + 2] = r;
+        v[o + 3] = g;
+        v[o + 4] = b;
+        v[o + 5] = a;
+        v[o + 6] = u;
+        v[o + 7] = uvY;
+        v[o + 8] = texId;
+        if (withData) {
+            v[o + 9] = data;
+            return o + 10;
+        }
+        return o + 9;
+    }
+}
@@ -2,12 +2,15 @@ package engine.graphics;
 
 import engine.graphics.debug.DebugDraw;
 import engine.graphics.renderer.Framebuffer;
+import engine.graphics.renderer.Renderer;
 import engine.listeners.KeyListener;
 import engine.listeners.MouseListener;
 import engine.ui.fonts.FontLoader;
+import engine.util.AssetPool;
 import engine.util.Engine;
 import engine.util.ImGuiLayer;
 import engine.util.Settings;
+import engine.util.observable.ChangeQueue;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.Version;
 import org.lwjgl.glfw.GLFWErrorCallback;
@@ -39,6 +42,9 @@ public class Window {
     /** Title displayed in the window's title bar. */
     private String title;
 
+    /** The time the last frame was drawn at, see {@link #getFPS(double)}. */
+    private double lastRenderTime;
+
     /** Handle to the GLFW window instance. */
     private long glfwWindow;
 
@@ -53,6 +59,24 @@ public class Window {
     /** The currently active scene. */
     private static Scene currentScene = null;
 
+    /** The passes that draw a frame, rebuilt when the scene changes. */
+    private static final RenderGraph renderGraph = new RenderGraph();
+
+    /** Builds the sprite batches while the next frame is updated, see {@link Settings#RENDER_WORKER}. */
+    private static final RenderWorker renderWorker = new RenderWorker();
+
+    /** The part of the framebuffer of the scene that is drawn this frame, see {@link Settings#PARTIAL_REDRAW}. */
+    private static final DamageRegion damage = new DamageRegion();
+
+    /** Whether the next frame draws the whole scene, like after a resize or when another scene was loaded. */
+    private static boolean fullRedraw = true;
+
+    /** Whether debug lines were drawn in the last frame, they are drawn over the whole scene. */
+    private static boolean debugLinesDrawn = false;
+
+    /** The framebuffer of the window itself, the ImGui windows are drawn into it. */
+    private static final Framebuffer defaultFramebuffer = new Framebuffer(0);
+
     /**
      * Private constructor to enforce the singleton pattern.
      * Initializes default window settings.
@@ -85,6 +109,7 @@ public class Window {
 
         init();
         loop();
+        dispose();
 
         // Free the memory
         glfwFreeCallbacks(glfwWindow);
@@ -126,7 +151,12 @@ public class Window {
         glfwSetWindowSizeCallback(glfwWindow, (w, newWidth, newHeight) -> {
             Window.setWidth(newWidth);
             Window.setHeight(newHeight);
+            fullRedraw = true;
+            FrameScheduler.requestRedraw();
         });
+        glfwSetWindowRefreshCallback(glfwWindow, w -> FrameScheduler.requestRedraw());
+        glfwSetWindowFocusCallback(glfwWindow, (w, focused) -> FrameScheduler.setFocused(focused));
+        glfwSetWindowIconifyCallback(glfwWindow, (w, iconified) -> FrameScheduler.setMinimized(iconified));
 
         // Make the OpenGL context current
         glfwMakeContextCurrent(glfwWindow);
@@ -141,6 +171,7 @@ public class Window {
         glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
 
         framebuffer = new Framebuffer(this.width, this.height);
+        framebuffer.setDamage(damage);
 
         if (Settings.DEVELOPMENT_MODE) {
             this.imGuiLayer = new ImGuiLayer(glfwWindow);
@@ -180,46 +211,147 @@ public class Window {
     /**
      * Executes the main rendering loop, updating the scene and rendering
      * frames until the window is closed.
+     * <p>
+     * Frames are only drawn when the {@link FrameScheduler} asks for one. In between the loop waits for events until
+     * the next tick is due, the game logic keeps running at its own rate.
      */
     public void loop() {
         double frameBeginTime = glfwGetTime();
         double frameEndTime = glfwGetTime();
+        boolean rendered = true;
 
         while (!glfwWindowShouldClose(glfwWindow)) {
+            // Wait for events when there is nothing to draw, otherwise only take the ones that came in
+            double waitTime = FrameScheduler.waitTime(glfwGetTime(), Engine.timeUntilNextTick());
+            if (waitTime > 0) {
+                glfwWaitEventsTimeout(waitTime);
+            } else {
+                glfwPollEvents();
+            }
+
             frameEndTime = glfwGetTime();
-            Engine.updateDeltaTime((float) (frameEndTime - frameBeginTime));
+            float frameTime = (float) (frameEndTime - frameBeginTime);
+            Engine.updateDeltaTime(frameTime);
             frameBeginTime = frameEndTime;
+            int ticks = Engine.advance(frameTime);
 
-            // Poll events
-            glfwPollEvents();
+            // Take the snapshot of the mouse everything reads in this frame
+            MouseListener.captureSnapshot();
 
-            // Render actual textures
-            DebugDraw.beginFrame();
+            // Remove the debug lines of the previous frames, lines live as long as the amount of frames that are drawn
+            if (rendered) {
+                DebugDraw.beginFrame();
+            }
 
-            if (currentScene.isRunning()) {
-                DebugDraw.draw();
-                currentScene.update();
-                currentScene.updateGameObjects();
-                currentScene.render();
-                currentScene.processPendingModifications();
-                currentScene.updateUI();
+            boolean running = currentScene.isRunning();
+            if (running) {
+                currentScene.updateUIInput();
+                currentScene.updateGameObjectInput();
+                // The game logic runs at a fixed rate, zero or more times per frame
+                for (int i = 0; i < ticks; i++) {
+                    currentScene.tick();
+                }
+                // Notify the listeners of everything that changed since the last frame, before it is drawn
+                if (ChangeQueue.flush()) {
+                    FrameScheduler.requestRedraw();
+                }
+            }
+            if (DebugDraw.getLineCount() > 0) {
+                FrameScheduler.requestRedraw();
             }
 
-            if (Settings.DEVELOPMENT_MODE) {
-                this.imGuiLayer.update(currentScene);
+            rendered = FrameScheduler.shouldRender(frameEndTime);
+            if (rendered) {
+                renderFrame(running, frameEndTime);
             }
 
-            glfwSwapBuffers(glfwWindow);
+            if (running) {
+                currentScene.processPendingModifications();
+                currentScene.updateUI();
+            }
 
             // Close on escape press
             if (KeyListener.isKeyPressed(GLFW_KEY_ESCAPE)) {
                 glfwSetWindowShouldClose(glfwWindow, true);
             }
-
-            get().getFPS();
         }
 
         SceneLoader.saveScene(currentScene);
+        FontLoader.saveFonts();
+    }
+
+    /**
+     * Draws the scene, the debug lines and the ImGui windows, and shows them.
+     */
+    private void renderFrame(boolean running, double time) {
+        if (running) {
+            // Copy what the renderers draw, the render worker may still be building the copy of the last frame
+            for (Renderer renderer : currentScene.renderers()) {
+                renderer.extract();
+            }
+        }
+
+        renderWorker.await();
+        if (running && !Settings.RENDER_WORKER) {
+            swapSnapshots();
+        }
+
+        collectDamage(running);
+        renderGraph.execute();
+
+        if (running && Settings.RENDER_WORKER) {
+            // Build this frame while the next one is updated, it is drawn at the end of the next frame
+            swapSnapshots();
+            renderWorker.build(currentScene.renderers());
+        }
+
+        glfwSwapBuffers(glfwWindow);
+        // Delete the GL objects that were released in this frame, nothing draws with them anymore
+        GpuResources.deletePending();
+
+        getFPS(time);
+        FrameScheduler.frameRendered(time);
+    }
+
+    /**
+     * Works out which part of the scene is drawn this frame. The whole scene is drawn after a resize or a scene change,
+     * while the scene isn't running and while there are debug lines.
+     */
+    private static void collectDamage(boolean running) {
+        damage.begin(getWidth(), getHeight());
+        boolean debugLines = DebugDraw.getLineCount() > 0;
+        if (fullRedraw || !running || !Settings.PARTIAL_REDRAW || debugLines || debugLinesDrawn) {
+            damage.markFull();
+        }
+        if (running) {
+            // Also when the whole scene is drawn, the renderers compare with the last frame
+            currentScene.addDamage(damage);
+        }
+
+        debugLinesDrawn = debugLines;
+        // The frame after one in which the scene didn't run has nothing to compare with
+        fullRedraw = !running;
+    }
+
+    private static void swapSnapshots() {
+        for (Renderer renderer : currentScene.renderers()) {
+            renderer.swapSnapshots();
+        }
+    }
+
+    /**
+     * Releases everything that owns GL objects while the context still exists, and reports the objects that are left.
+     */
+    private void dispose() {
+        renderWorker.shutdown();
+        currentScene.dispose();
+        DebugDraw.dispose();
+        FontLoader.disposeFonts();
+        AssetPool.dispose();
+        framebuffer.release();
+
+        GpuResources.deletePending();
+        GpuResources.reportLeaks();
     }
 
     /**
@@ -234,6 +366,11 @@ public class Window {
      * @param newScene the ID of the new scene (0: {@link DevScene}, 1: {@link HomeScene})
      */
     public static void changeScene(Class<? extends Scene> newScene) {
+        if (currentScene != null) {
+            // The worker may still be filling the batches of the old scene
+            renderWorker.await();
+            currentScene.dispose();
+        }
         if (newScene.equals(DevScene.class)) {
             currentScene = new DevScene();
         } else if (newScene.equals(HomeScene.class)) {
@@ -245,6 +382,34 @@ public class Window {
         SceneLoader.loadScene(currentScene);
         currentScene.init();
         currentScene.start();
+        buildRenderGraph();
+        fullRedraw = true;
+        FrameScheduler.requestRedraw();
+    }
+
+    /**
+     * Adds the passes of the current scene to the render graph, followed by the debug lines and the ImGui windows. The
+     * ImGui windows show the framebuffer of the scene, without them the framebuffer is the result of the frame.
+     */
+    private static void buildRenderGraph() {
+        renderGraph.clear();
+        renderGraph.setFramebuffer(RenderTarget.SCENE_COLOR, framebuffer);
+        renderGraph.setFramebuffer(RenderTarget.VIEWPORT, defaultFramebuffer);
+        currentScene.addRenderPasses(renderGraph);
+        renderGraph.addPass(DebugDraw.renderPass());
+
+        if (Settings.DEVELOPMENT_MODE) {
+            ImGuiLayer imGuiLayer = get().imGuiLayer;
+            renderGraph.addPass(new RenderPass("ImGui", RenderTarget.VIEWPORT, () -> imGuiLayer.update(currentScene))
+                    .reads(RenderTarget.SCENE_COLOR));
+            renderGraph.addOutput(RenderTarget.VIEWPORT);
+        } else {
+            renderGraph.addOutput(RenderTarget.SCENE_COLOR);
+        }
+    }
+
+    public static RenderGraph getRenderGraph() {
+        return renderGraph;
     }
 
 
@@ -286,10 +451,12 @@ public class Window {
     }
 
     /**
-     * Updates the window's title to display the current frames per second (FPS).
+     * Updates the window's title to display the current frames per second (FPS), from the time between the last two
+     * frames that were drawn.
      */
-    public void getFPS() {
-        float fps = 1 / Engine.deltaTime();
+    private void getFPS(double time) {
+        float fps = (float) (1 / (time - lastRenderTime));
+        lastRenderTime = time;
         glfwSetWindowTitle(glfwWindow, title + " @ " + (int) fps + " FPS");
     }
 
@@ -1,135 +1,102 @@
 package engine.graphics.debug;
 
-import engine.graphics.Shader;
-import engine.graphics.Window;
-import engine.util.AssetPool;
-import engine.util.JMath;
+import engine.graphics.RenderPass;
+import engine.graphics.RenderTarget;
 import org.joml.Vector2f;
 import org.joml.Vector3f;
+import org.lwjgl.system.MemoryUtil;
 
-import java.util.ArrayList;
+import java.nio.FloatBuffer;
 import java.util.Arrays;
-import java.util.List;
-
-import static org.lwjgl.opengl.GL15.*;
-import static org.lwjgl.opengl.GL20.*;
-import static org.lwjgl.opengl.GL30.glBindVertexArray;
-import static org.lwjgl.opengl.GL30.glGenVertexArrays;
 
+/**
+ * Draws lines on top of the scene for debugging, like the bounds of objects or the cells of a grid.
+ * <p>
+ * The lines are kept in a native buffer that is already in the vertex layout of the {@link DebugRenderer}, so a frame
+ * copies it into the batches in bulk instead of building the vertices line by line. The buffer grows when it is full,
+ * there is no limit on the amount of lines.
+ * <p>
+ * Every line lives for a number of frames. The lifetimes are kept in a packed array next to the buffer, a line that
+ * expires is overwritten by the last line, so removing lines doesn't shift the lines after it.
+ */
 public class DebugDraw {
-    private static int MAX_LINES = 500;
-
-    private static List<Line2D> lines = new ArrayList<>();
-    /**
-     * The vertex array that will be uploaded to the GPU
-     * <p>It has 6 floats per vertex (3 for position, 3 for color), 2 vertices per line</p>
-     */
-    private static float[] vertexArray = new float[MAX_LINES * 6 * 2];
-    private static Shader shader = AssetPool.getShader("src/assets/shaders/debugLine2D.glsl");
+    /** Floats per vertex: 3 for the position, 3 for the color */
+    static final int VERTEX_SIZE = 6;
+    /** Floats per line, 2 vertices */
+    static final int LINE_SIZE = 2 * VERTEX_SIZE;
 
-    private static int vaoID;
-    private static int vboID;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float Z = -10.0f;
+    private static final Vector3f DEFAULT_COLOR = new Vector3f(0, 1, 0);
 
-    private static boolean started = false;
+    private static final int CIRCLE_SEGMENTS = 20;
+    private static final float CIRCLE_STEP_COS = (float) Math.cos(2 * Math.PI / CIRCLE_SEGMENTS);
+    private static final float CIRCLE_STEP_SIN = (float) Math.sin(2 * Math.PI / CIRCLE_SEGMENTS);
 
-    /**
-     * Initialize a buffer on the GPU of a certain size (size of {@link #vertexArray} in this case).
-     * <p>This makes sure we have space on the GPU to upload all the vertices</p>
-     */
-    public static void start() {
-        // Generate the VAO
-        vaoID = glGenVertexArrays();
-        glBindVertexArray(vaoID);
+    /** The vertices of the lines, line {@code i} starts at {@code i * LINE_SIZE}. null after {@link #dispose()} */
+    static FloatBuffer vertices = MemoryUtil.memAllocFloat(INITIAL_CAPACITY * LINE_SIZE);
+    /** The frames left for every line, in the same order as {@link #vertices} */
+    private static int[] lifetimes = new int[INITIAL_CAPACITY];
+    static int lineCount = 0;
 
-        // Create the VBO and buffer some memory
-        vboID = glGenBuffers();
-        glBindBuffer(GL_ARRAY_BUFFER, vboID);
-        glBufferData(GL_ARRAY_BUFFER, (long) vertexArray.length * Float.BYTES, GL_DYNAMIC_DRAW);
-
-        // Enable the vertex array attributes
-        glVertexAttribPointer(0, 3, GL_FLOAT, false, 6 * Float.BYTES, 0);
-        glEnableVertexAttribArray(0);
-
-        glVertexAttribPointer(1, 3, GL_FLOAT, false, 6 * Float.BYTES, 3 * Float.BYTES);
-        glEnableVertexAttribArray(1);
-
-        glLineWidth(2.0f);
-    }
+    private static DebugRenderer renderer;
 
     /**
-     * Check and see if we need to remove any lines and remove them if we do.
+     * Removes the lines whose lifetime is over. Called at the start of every frame, a line with a lifetime of 1 is
+     * drawn in the frame it is added in only.
      */
     public static void beginFrame() {
-        if (!started) {
-            start();
-            started = true;
+        if (renderer == null) {
+            renderer = new DebugRenderer();
+            renderer.init();
         }
 
-        // Remove dead lines
-        for (int i = 0; i < lines.size(); i++) {
-            if (lines.get(i).beginFrame() < 0) {
-                lines.remove(i);
+        for (int i = 0; i < lineCount; i++) {
+            if (--lifetimes[i] <= 0) {
+                // Move the last line into the gap, it is checked in the next iteration
+                int last = --lineCount;
+                if (i != last) {
+                    vertices.put(i * LINE_SIZE, vertices, last * LINE_SIZE, LINE_SIZE);
+                    lifetimes[i] = lifetimes[last];
+                }
                 i--;
             }
         }
     }
 
     /**
-     * Create lines and upload them to the GPU inside the vbo
+     * @return the pass that draws the lines on top of the scene, skipped in the frames there are no lines.
      */
-    public static void draw() {
-        if (lines.size() == 0) return;
-
-        int index = 0;
-        for (Line2D line : lines) {
-            for (int i = 0; i < 2; i++) {
-                Vector2f position = i == 0 ? line.getFrom() : line.getTo();
-                Vector3f color = line.getColor();
-
-                // Load position
-                vertexArray[index] = position.x;
-                vertexArray[index + 1] = position.y;
-                vertexArray[index + 2] = -10.0f;
-
-                // Load color
-                vertexArray[index + 3] = color.x;
-                vertexArray[index + 4] = color.y;
-                vertexArray[index + 5] = color.z;
-                index += 6;
-            }
-        }
-
-        glBindBuffer(GL_ARRAY_BUFFER, vboID);
-        glBufferSubData(GL_ARRAY_BUFFER, 0, Arrays.copyOfRange(vertexArray, 0, lines.size() * 6 * 2));  // vertexArray has size 500 * 6 * 2, we actually only have lines.size() * 6 * 2 values that we need to send to the GPU
-
-        // Use custom shader
-        shader.use();
-        shader.uploadMat4f("uProjection", Window.getScene().camera().getProjectionMatrix());
-        shader.uploadMat4f("uView", Window.getScene().camera().getViewMatrix());
-
-        // Bind the vao
-        glBindVertexArray(vaoID);
-        glEnableVertexAttribArray(0);
-        glEnableVertexAttribArray(1);
-
-        // Draw the batch
-        glDrawArrays(GL_LINES, 0, lines.size() * 6 * 2);
+    public static RenderPass renderPass() {
+        return new RenderPass("Debug lines", RenderTarget.SCENE_COLOR, () -> renderer.draw())
+                .onlyWhen(() -> lineCount > 0 && renderer != null);
+    }
 
-        // Disable location
-        glDisableVertexAttribArray(0);
-        glDisableVertexAttribArray(1);
-        glBindVertexArray(0);
+    /**
+     * Frees the batches and the native buffer of the lines, called when the game closes.
+     */
+    public static void dispose() {
+        if (renderer != null) {
+            renderer.dispose();
+            renderer = null;
+        }
+        if (vertices != null) {
+            MemoryUtil.memFree(vertices);
+            vertices = null;
+        }
+        lifetimes = new int[INITIAL_CAPACITY];
+        lineCount = 0;
+    }
 
-        // Unbind shader
-        shader.detach();
+    public static int getLineCount() {
+        return lineCount;
     }
 
     // =================================================================================================================
     // Add Line2D methods
     // =================================================================================================================
     public static void addLine2D(Vector2f from, Vector2f to) {
-        // TODO add constants for common color
-        addLine2D(from, to, new Vector3f(0, 1, 0), 1);
+        addLine2D(from, to, DEFAULT_COLOR, 1);
     }
 
     public static void addLine2D(Vector2f from, Vector2f to, Vector3f color) {
@@ -137,15 +104,50 @@ public class DebugDraw {
     }
 
     public static void addLine2D(Vector2f from, Vector2f to, Vector3f color, int lifetime) {
-        if (lines.size() >= MAX_LINES) return;
-        DebugDraw.lines.add(new Line2D(from, to, color, lifetime));
+        addLine2D(from.x, from.y, to.x, to.y, color.x, color.y, color.z, lifetime);
+    }
+
+    /**
+     * Adds a line without creating any objects, the shapes are built with this method.
+     *
+     * @param lifetime the amount of frames the line is drawn
+     */
+    public static void addLine2D(float x1, float y1, float x2, float y2, float r, float g, float b, int lifetime) {
+        if (vertices == null) {
+            // Disposed, lines added after that get a new buffer
+            vertices = MemoryUtil.memAllocFloat(lifetimes.length * LINE_SIZE);
+        }
+        if (lineCount == lifetimes.length) {
+            grow();
+        }
+
+        int offset = lineCount * LINE_SIZE;
+        putVertex(offset, x1, y1, r, g, b);
+        putVertex(offset + VERTEX_SIZE, x2, y2, r, g, b);
+        lifetimes[lineCount++] = lifetime;
+    }
+
+    private static void putVertex(int offset, float x, float y, float r, float g, float b) {
+        vertices.put(offset, x);
+        vertices.put(offset + 1, y);
+        vertices.put(offset + 2, Z);
+        vertices.put(offset + 3, r);
+        vertices.put(offset + 4, g);
+        vertices.put(offset + 5, b);
+    }
+
+    private static void grow() {
+        int capacity = lifetimes.length * 2;
+        vertices = MemoryUtil.memRealloc(vertices, capacity * LINE_SIZE);
+        vertices.clear();
+        lifetimes = Arrays.copyOf(lifetimes, capacity);
     }
 
     // =================================================================================================================
     // Add Box2D methods
     // =================================================================================================================
     public static void addBox2D(Vector2f center, Vector2f dimensions, float rotation) {
-        addBox2D(center, dimensions, rotation, new Vector3f(0, 1, 0), 1);
+        addBox2D(center, dimensions, rotation, DEFAULT_COLOR, 1);
     }
 
     public static void addBox2D(Vector2f center, Vector2f dimensions, float rotation, Vector3f color) {
@@ -153,33 +155,45 @@ public class DebugDraw {
     }
 
     public static void addBox2D(Vector2f center, Vector2f dimensions, float rotation, Vector3f color, int lifetime) {
-        Vector2f min = new Vector2f(center).sub(new Vector2f(dimensions).div(2.0f));    // Bottom left corner
-        Vector2f max = new Vector2f(center).add(new Vector2f(dimensions).div(2.0f));    // Top right corner
-
-        Vector2f[] vertices = {
-                new Vector2f(min.x, min.y), // Bottom left
-                new Vector2f(min.x, max.y), // Top left
-                new Vector2f(max.x, max.y), // Top right
-                new Vector2f(max.x, min.y)  // Bottom right
-        };
+        addBox2D(center.x, center.y, dimensions.x, dimensions.y, rotation, color.x, color.y, color.z, lifetime);
+    }
 
+    /**
+     * @param rotation the rotation around the center in degrees
+     */
+    public static void addBox2D(float centerX, float centerY, float width, float height, float rotation,
+                                float r, float g, float b, int lifetime) {
+        float halfWidth = width / 2.0f;
+        float halfHeight = height / 2.0f;
+
+        // The half diagonals to the top right and top left corner, the other corners mirror them
+        float rightX = halfWidth, rightY = halfHeight;
+        float leftX = -halfWidth, leftY = halfHeight;
         if (rotation != 0.0f) {
-            for (Vector2f vertex : vertices) {
-                JMath.rotate(vertex, rotation, center);
-            }
+            float cos = (float) Math.cos(Math.toRadians(rotation));
+            float sin = (float) Math.sin(Math.toRadians(rotation));
+            rightX = halfWidth * cos - halfHeight * sin;
+            rightY = halfWidth * sin + halfHeight * cos;
+            leftX = -halfWidth * cos - halfHeight * sin;
+            leftY = -halfWidth * sin + halfHeight * cos;
         }
 
-        addLine2D(vertices[0], vertices[1], color, lifetime);
-        addLine2D(vertices[1], vertices[2], color, lifetime);
-        addLine2D(vertices[2], vertices[3], color, lifetime);
-        addLine2D(vertices[3], vertices[0], color, lifetime);
+        float bottomLeftX = centerX - rightX, bottomLeftY = centerY - rightY;
+        float topLeftX = centerX + leftX, topLeftY = centerY + leftY;
+        float topRightX = centerX + rightX, topRightY = centerY + rightY;
+        float bottomRightX = centerX - leftX, bottomRightY = centerY - leftY;
+
+        addLine2D(bottomLeftX, bottomLeftY, topLeftX, topLeftY, r, g, b, lifetime);
+        addLine2D(topLeftX, topLeftY, topRightX, topRightY, r, g, b, lifetime);
+        addLine2D(topRightX, topRightY, bottomRightX, bottomRightY, r, g, b, lifetime);
+        addLine2D(bottomRightX, bottomRightY, bottomLeftX, bottomLeftY, r, g, b, lifetime);
     }
 
     // =================================================================================================================
     // Add Circle methods
     // =================================================================================================================
     public static void addCircle(Vector2f center, float radius) {
-        addCircle(center, radius, new Vector3f(0, 1, 0), 1);
+        addCircle(center, radius, DEFAULT_COLOR, 1);
     }
 
     public static void addCircle(Vector2f center, float radius, Vector3f color) {
@@ -187,24 +201,26 @@ public class DebugDraw {
     }
 
     public static void addCircle(Vector2f center, float radius, Vector3f color, int lifetime) {
-        int CIRCLE_SEGMENTS = 20;
-        Vector2f[] points = new Vector2f[CIRCLE_SEGMENTS];
-        int increment = 360 / points.length;
-        int currentAngle = 0;
-
-        for (int i = 0; i < points.length; i++) {
-            // Create a temporary point from 0, 0
-            Vector2f tmp = new Vector2f(radius, 0);
-            JMath.rotate(tmp, currentAngle, new Vector2f());
-            // Add the center of the circle to the temporary point so that it is placed around the given center
-            points[i] = new Vector2f(tmp).add(center);
-
-            // Draw the lines between each point
-            if (i > 0) {
-                addLine2D(points[i - 1], points[i], color, lifetime);
+        addCircle(center.x, center.y, radius, color.x, color.y, color.z, lifetime);
+    }
+
+    public static void addCircle(float centerX, float centerY, float radius, float r, float g, float b, int lifetime) {
+        // Rotate the offset to the previous point by one segment for every point, instead of calling cos and sin
+        float dx = radius;
+        float dy = 0.0f;
+        for (int i = 0; i < CIRCLE_SEGMENTS; i++) {
+            float nextDx, nextDy;
+            if (i == CIRCLE_SEGMENTS - 1) {
+                // Close the circle exactly on the first point
+                nextDx = radius;
+                nextDy = 0.0f;
+            } else {
+                nextDx = dx * CIRCLE_STEP_COS - dy * CIRCLE_STEP_SIN;
+                nextDy = dx * CIRCLE_STEP_SIN + dy * CIRCLE_STEP_COS;
             }
-            currentAngle += increment;
+            addLine2D(centerX + dx, centerY + dy, centerX + nextDx, centerY + nextDy, r, g, b, lifetime);
+            dx = nextDx;
+            dy = nextDy;
         }
-        addLine2D(points[points.length - 1], points[0], color, lifetime);
     }
 }
@@ -0,0 +1,60 @@
+package engine.graphics.debug;
+
+import engine.graphics.Primitive;
+import engine.graphics.Shader;
+import engine.graphics.ShaderDatatype;
+import engine.graphics.Window;
+import engine.graphics.renderer.Framebuffer;
+import engine.graphics.renderer.RenderBatch;
+import engine.graphics.renderer.Renderer;
+import engine.util.AssetPool;
+import engine.util.Layer;
+
+import static org.lwjgl.opengl.GL11.glLineWidth;
+
+/**
+ * Draws the lines of {@link DebugDraw}. The buffer of the lines is copied into line batches as is, a new batch is
+ * created for every {@link #MAX_BATCH_SIZE} lines.
+ */
+class DebugRenderer extends Renderer {
+    /** Amount of lines in a batch */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    @Override
+    public Shader createShader() {
+        return AssetPool.getShader("src/assets/shaders/debugLine2D.glsl");
+    }
+
+    @Override
+    protected Framebuffer createFramebuffer() {
+        return Window.getFramebuffer();
+    }
+
+    @Override
+    protected RenderBatch createBatch(int zIndex) {
+        return new RenderBatch(MAX_BATCH_SIZE, zIndex, Primitive.LINE, ShaderDatatype.FLOAT3, ShaderDatatype.FLOAT3);
+    }
+
+    @Override
+    protected void uploadUniforms(Shader shader) {
+        shader.uploadMat4f("uProjection", Window.getScene().camera().getProjectionMatrix());
+        shader.uploadMat4f("uView", Window.getScene().camera().getViewMatrix());
+    }
+
+    @Override
+    protected void rebuffer() {
+        int offset = 0;
+        int end = DebugDraw.lineCount * DebugDraw.LINE_SIZE;
+        while (offset < end) {
+            RenderBatch batch = getAvailableBatch(null, Layer.TOP);
+            int count = Math.min(end - offset, batch.getRemainingSpace());
+            batch.pushFloats(DebugDraw.vertices, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    protected void prepare() {
+        glLineWidth(2.0f);
+    }
+}
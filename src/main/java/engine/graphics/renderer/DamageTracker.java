@@ -0,0 +1,78 @@
+package engine.graphics.renderer;
+
+import engine.graphics.DamageRegion;
+import engine.graphics.QuadArrays;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the quads a renderer drew in the last frame, and damages the screen where the quads of the next frame
+ * differ from them. A quad that moved damages both where it was and where it is now.
+ * <p>
+ * Quads are compared by index, so a quad that is removed from the middle damages every quad after it. That is fine
+ * for the few quads that change in most frames, a frame where many quads change becomes a full redraw anyway.
+ */
+final class DamageTracker {
+    private final QuadArrays drawn = new QuadArrays();
+    private Texture[] textures = new Texture[64];
+    /** The projection times the view of the last frame, the whole screen changes when it does */
+    private final Matrix4f drawnTransform = new Matrix4f();
+    private final Matrix4f transform = new Matrix4f();
+    private boolean hasDrawn = false;
+
+    /**
+     * Adds the areas where the quads differ from the last frame to the region, and remembers the quads.
+     *
+     * @param textures the texture of every quad, null for a quad without texture
+     */
+    void compare(QuadArrays quads, Texture[] textures, Matrix4fc projection, Matrix4fc view, DamageRegion damage) {
+        projection.mul(view, transform);
+        if (!hasDrawn || !transform.equals(drawnTransform)) {
+            damage.markFull();
+        }
+
+        int count = quads.size();
+        int drawnCount = drawn.size();
+        int common = Math.min(count, drawnCount);
+        for (int i = 0; i < common && !damage.isFull(); i++) {
+            if (!sameQuad(quads, textures, i)) {
+                addQuad(drawn, i, damage);
+                addQuad(quads, i, damage);
+            }
+        }
+        for (int i = common; i < drawnCount && !damage.isFull(); i++) {
+            addQuad(drawn, i, damage);
+        }
+        for (int i = common; i < count && !damage.isFull(); i++) {
+            addQuad(quads, i, damage);
+        }
+
+        drawn.set(quads);
+        if (this.textures.length < count) {
+            this.textures = new Texture[textures.length];
+        }
+        System.arraycopy(textures, 0, this.textures, 0, count);
+        // Textures of quads that are gone aren't kept alive
+        Arrays.fill(this.textures, count, this.textures.length, null);
+        drawnTransform.set(transform);
+        hasDrawn = true;
+    }
+
+    /**
+     * The texture slot isn't compared, a quad that lands in another batch looks the same.
+     */
+    private boolean sameQuad(QuadArrays quads, Texture[] textures, int i) {
+        return textures[i] == this.textures[i]
+                && quads.x[i] == drawn.x[i] && quads.y[i] == drawn.y[i]
+                && quads.width[i] == drawn.width[i] && quads.height[i] == drawn.height[i]
+                && quads.u0[i] == drawn.u0[i] && quads.v0[i] == drawn.v0[i]
+                && quads.u1[i] == drawn.u1[i] && quads.v1[i] == drawn.v1[i]
+                && quads.color[i] == drawn.color[i] && quads.data[i] == drawn.data[i];
+    }
+
+    private void addQuad(QuadArrays quads, int i, DamageRegion damage) {
+        damage.addWorld(quads.x[i], quads.y[i], quads.width[i], quads.height[i], transform);
+    }
+}
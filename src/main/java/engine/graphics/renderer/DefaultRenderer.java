@@ -2,13 +2,14 @@ package engine.graphics.renderer;
 
 import engine.ecs.GameObject;
 import engine.ecs.components.SpriteRenderer;
+import engine.graphics.DamageRegion;
 import engine.graphics.Primitive;
 import engine.graphics.Shader;
-import engine.graphics.ShaderDatatype;
+import engine.graphics.VertexLayout;
 import engine.graphics.Window;
 import engine.ui.EventConsumer;
 import engine.util.AssetPool;
-import org.joml.Vector2f;
+import engine.util.Engine;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +20,10 @@ public class DefaultRenderer extends Renderer {
     protected final int MAX_BATCH_SIZE = 1000;
 
     protected final List<SpriteRenderer> sprites;
+    /** The snapshot the update fills and the one that is built and drawn, swapped every frame */
+    private SpriteSnapshot backSnapshot = new SpriteSnapshot();
+    private SpriteSnapshot frontSnapshot = new SpriteSnapshot();
+    private final DamageTracker damageTracker = new DamageTracker();
 
     public DefaultRenderer() {
         sprites = new ArrayList<>();
@@ -37,69 +42,55 @@ public class DefaultRenderer extends Renderer {
 
     @Override
     protected RenderBatch createBatch(int zIndex) {
-        return new RenderBatch(MAX_BATCH_SIZE, zIndex, Primitive.QUAD,
-                ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT4, ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT, ShaderDatatype.FLOAT
-        );
+        return new RenderBatch(MAX_BATCH_SIZE, zIndex, Primitive.QUAD, VertexLayout.SPRITE_WITH_DATA);
     }
 
     @Override
     protected void uploadUniforms(Shader shader) {
         shader.uploadIntArray("uTextures", textureSlots);
 
-        shader.uploadMat4f("uProjection", Window.getScene().camera().getProjectionMatrix());
-        shader.uploadMat4f("uView", Window.getScene().camera().getViewMatrix());
+        shader.uploadMat4f("uProjection", frontSnapshot.projection);
+        shader.uploadMat4f("uView", frontSnapshot.view);
+    }
+
+    @Override
+    public void extract() {
+        backSnapshot.extract(sprites, Window.getScene().camera(), Engine.alpha(), DefaultRenderer::cooldown);
+    }
+
+    @Override
+    public void swapSnapshots() {
+        SpriteSnapshot snapshot = frontSnapshot;
+        frontSnapshot = backSnapshot;
+        backSnapshot = snapshot;
+    }
+
+    @Override
+    public void addDamage(DamageRegion damage) {
+        frontSnapshot.addDamage(damageTracker, damage);
+    }
+
+    @Override
+    public boolean canBuildAhead() {
+        return true;
     }
 
     @Override
     protected void rebuffer() {
-        for (SpriteRenderer sprite : sprites) {
-            RenderBatch batch = getAvailableBatch(sprite.getTexture(), sprite.gameObject.zIndex());
-
-            Vector2f pos = sprite.gameObject.transform.position;
-            Vector2f scale = sprite.gameObject.transform.scale;
-            Vector2f[] texCoords = sprite.getTexCoords();
-
-            int texID;
-            if (sprite.getTexture() != null) {
-                texID = batch.addTexture(sprite.getTexture());
-            } else {
-                texID = 0;
-            }
+        frontSnapshot.rebuffer(this);
+    }
 
-            // Push vertices to the batch
-            float xAdd = 1.0f;
-            float yAdd = 1.0f;
-            for (int i = 0; i < 4; i++) {
-                switch (i) {
-                    case 1 -> yAdd = 0.0f;
-                    case 2 -> xAdd = 0.0f;
-                    case 3 -> yAdd = 1.0f;
-                }
-
-                float scaledX = (xAdd * scale.x);
-                float scaledY = (yAdd * scale.y);
-
-                // Load position
-                batch.pushVec2(pos.x + scaledX, pos.y + scaledY);
-
-                // Load color
-                batch.pushColor(sprite.getColor());
-
-                // Load texture coordinates
-                batch.pushVec2(texCoords[i]);
-
-                // Load texture id
-                batch.pushInt(texID);
-
-                // Load cooldown value
-                EventConsumer eventConsumer = sprite.gameObject.eventConsumer;
-                if (eventConsumer != null && eventConsumer.hasCooldownAnimation()) {
-                    batch.pushFloat(Math.min(1.0f, eventConsumer.clickDelayTimer() / eventConsumer.clickDelay()));
-                } else {
-                    batch.pushFloat(0.0f);
-                }
+    private static float cooldown(SpriteRenderer sprite) {
+        EventConsumer eventConsumer = sprite.gameObject.eventConsumer;
+        if (eventConsumer != null && eventConsumer.hasCooldownAnimation()) {
+            float timer = eventConsumer.clickDelayTimer();
+            if (timer < eventConsumer.clickDelay()) {
+                // The timer as it was between the last two ticks, so the animation is smooth at a low tick rate
+                timer = Math.max(0.0f, timer - (1.0f - Engine.alpha()) * Engine.tickDelta());
             }
+            return Math.min(1.0f, timer / eventConsumer.clickDelay());
         }
+        return 0.0f;
     }
 
     @Override
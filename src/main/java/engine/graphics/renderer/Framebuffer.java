@@ -1,29 +1,47 @@
 package engine.graphics.renderer;
 
+import engine.graphics.DamageRegion;
+import engine.graphics.GpuHandle;
+import engine.graphics.GpuResources;
+
 import static org.lwjgl.opengl.GL30.*;
 
 public class Framebuffer {
     private int fboID = 0;
+    private GpuHandle fboHandle;
+    private GpuHandle rboHandle;
     private Texture texture = null;
+    /** The part that is redrawn this frame, null when the framebuffer is redrawn as a whole every time it is drawn */
+    private DamageRegion damage = null;
 
     public Framebuffer(int id) {
         this.fboID = id;
     }
 
     public Framebuffer(int width, int height) {
+        this(width, height, false);
+    }
+
+    /**
+     * @param transparent whether the texture has an alpha channel, so what is rendered can be drawn on top of something else
+     */
+    public Framebuffer(int width, int height, boolean transparent) {
         // Generate framebuffer
-        fboID = glGenFramebuffers();
+        String owner = "Framebuffer " + width + "x" + height;
+        fboHandle = GpuResources.track(GpuHandle.Type.FRAMEBUFFER, glGenFramebuffers(), owner);
+        fboID = fboHandle.getId();
         this.bind();
 
         // Create the texture to render the data to and attach it to our framebuffer
-        this.texture = new Texture(width, height);
+        this.texture = new Texture(width, height, transparent ? GL_RGBA : GL_RGB);
         glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, this.texture.getId(), 0);
 
         // Create renderbuffer to store depth info
-        int rboID = glGenRenderbuffers();
-        glBindRenderbuffer(GL_RENDERBUFFER, rboID);
+        rboHandle = GpuResources.track(GpuHandle.Type.RENDERBUFFER, glGenRenderbuffers(), owner);
+        glBindRenderbuffer(GL_RENDERBUFFER, rboHandle.getId());
         glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH_COMPONENT32, width, height);
-        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_RENDERBUFFER, rboID);
+        rboHandle.setSizeInBytes((long) width * height * 4);
+        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_RENDERBUFFER, rboHandle.getId());
 
         if (glCheckFramebufferStatus(GL_FRAMEBUFFER) != GL_FRAMEBUFFER_COMPLETE) {
             assert false : "Error: Framebuffer is not complete";
@@ -39,6 +57,18 @@ public class Framebuffer {
         glBindFramebuffer(GL_FRAMEBUFFER, 0);
     }
 
+    /**
+     * Makes the renderers that draw into this framebuffer only draw the damaged rectangles, the rest keeps what was
+     * drawn before.
+     */
+    public void setDamage(DamageRegion damage) {
+        this.damage = damage;
+    }
+
+    public DamageRegion getDamage() {
+        return damage;
+    }
+
     public int getFboID() {
         return fboID;
     }
@@ -46,4 +76,21 @@ public class Framebuffer {
     public int getTextureId() {
         return texture.getId();
     }
+
+    public Texture getTexture() {
+        return texture;
+    }
+
+    /**
+     * Frees the framebuffer, its depth buffer and its texture on the GPU at the end of the frame. Does nothing for a
+     * framebuffer that wraps an existing id, like the default framebuffer.
+     */
+    public void release() {
+        if (fboHandle == null) return;
+
+        fboHandle.release();
+        rboHandle.release();
+        texture.release();
+        fboHandle = null;
+    }
 }
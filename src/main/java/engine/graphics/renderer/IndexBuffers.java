@@ -0,0 +1,66 @@
+package engine.graphics.renderer;
+
+import engine.graphics.GpuHandle;
+import engine.graphics.GpuResources;
+import engine.graphics.Primitive;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL31.GL_COPY_WRITE_BUFFER;
+
+/**
+ * The index buffers of the batches, one per {@link Primitive}.
+ * <p>
+ * The indices of a batch only depend on its primitive and its capacity, so every batch of a primitive shares one
+ * buffer, with room for the largest batch. When a batch grows beyond it, the buffer is grown to at least twice its size.
+ * The name of the buffer stays the same, so the vaos that use it don't have to be updated.
+ * <p>
+ * Every batch holds a reference to the buffer of its primitive, the buffer is deleted when the last batch is released.
+ */
+final class IndexBuffers {
+    private static final GpuHandle[] buffers = new GpuHandle[Primitive.values().length];
+    /** Amount of primitives the buffer of a primitive has indices for */
+    private static final int[] capacities = new int[Primitive.values().length];
+
+    private IndexBuffers() {
+    }
+
+    /**
+     * Returns the buffer of the primitive, with indices for at least {@code capacity} primitives, and adds a reference to
+     * it for the caller. Bind it to the vao with {@code GL_ELEMENT_ARRAY_BUFFER}.
+     */
+    static GpuHandle acquire(Primitive primitive, int capacity) {
+        GpuHandle buffer = buffers[primitive.ordinal()];
+        if (buffer == null || !buffer.isAlive()) {
+            // The first reference of a new buffer belongs to the caller
+            buffer = GpuResources.track(GpuHandle.Type.BUFFER, glGenBuffers(), primitive + " indices");
+            buffers[primitive.ordinal()] = buffer;
+            capacities[primitive.ordinal()] = 0;
+        } else {
+            buffer.retain();
+        }
+        ensureCapacity(primitive, capacity);
+        return buffer;
+    }
+
+    /**
+     * Grows the buffer of the primitive if it has indices for less than {@code capacity} primitives.
+     */
+    static void ensureCapacity(Primitive primitive, int capacity) {
+        int current = capacities[primitive.ordinal()];
+        if (current >= capacity) return;
+
+        int newCapacity = Math.max(capacity, current * 2);
+        int[] elements = new int[primitive.elementCount * newCapacity];
+        for (int i = 0; i < newCapacity; i++) {
+            primitive.elementCreation.accept(elements, i);
+        }
+
+        // Uploaded through the copy target, binding it as element buffer would change the bound vao
+        GpuHandle buffer = buffers[primitive.ordinal()];
+        glBindBuffer(GL_COPY_WRITE_BUFFER, buffer.getId());
+        glBufferData(GL_COPY_WRITE_BUFFER, elements, GL_STATIC_DRAW);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+        buffer.setSizeInBytes((long) elements.length * Integer.BYTES);
+        capacities[primitive.ordinal()] = newCapacity;
+    }
+}
@@ -2,12 +2,14 @@ package engine.graphics.renderer;
 
 import engine.ecs.GameObject;
 import engine.ecs.components.SpriteRenderer;
+import engine.graphics.GpuHandle;
+import engine.graphics.GpuResources;
 import engine.graphics.Primitive;
 import engine.graphics.Shader;
-import engine.graphics.ShaderDatatype;
+import engine.graphics.VertexLayout;
 import engine.graphics.Window;
 import engine.util.AssetPool;
-import org.joml.Vector2f;
+import engine.util.Engine;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +21,13 @@ public class PickingRenderer extends Renderer {
     protected final int MAX_BATCH_SIZE = 1000;
 
     protected final List<SpriteRenderer> sprites;
+    /** The textures that replace the attachments of the framebuffer */
+    private GpuHandle pickingTexture, depthTexture;
+    /** The snapshot the update fills and the one that is built and drawn, swapped every frame */
+    private SpriteSnapshot backSnapshot = new SpriteSnapshot();
+    private SpriteSnapshot frontSnapshot = new SpriteSnapshot();
+    /** Whether a sprite was under the mouse in the last frame, the picking texture isn't drawn when there wasn't */
+    private boolean spriteUnderMouse;
 
     public PickingRenderer() {
         sprites = new ArrayList<>();
@@ -38,26 +47,26 @@ public class PickingRenderer extends Renderer {
     }
 
     private boolean init(int width, int height) {
-        int depthTexture;
-        int pickingTextureId;
         framebuffer.bind();
 
         // Create the texture to render the data to and attach it to our framebuffer
-        pickingTextureId = glGenTextures();
-        glBindTexture(GL_TEXTURE_2D, pickingTextureId);
+        pickingTexture = GpuResources.track(GpuHandle.Type.TEXTURE, glGenTextures(), "Picking texture");
+        glBindTexture(GL_TEXTURE_2D, pickingTexture.getId());
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
         glTexImage2D(GL_TEXTURE_2D, 0, GL_RGB32F, width, height, 0, GL_RGB, GL_FLOAT, 0);
-        glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, pickingTextureId, 0);
+        pickingTexture.setSizeInBytes((long) width * height * 3 * Float.BYTES);
+        glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, pickingTexture.getId(), 0);
 
         // Create texture object for the depth buffer
         glEnable(GL_TEXTURE_2D);
-        depthTexture = glGenTextures();
-        glBindTexture(GL_TEXTURE_2D, depthTexture);
+        depthTexture = GpuResources.track(GpuHandle.Type.TEXTURE, glGenTextures(), "Picking depth texture");
+        glBindTexture(GL_TEXTURE_2D, depthTexture.getId());
         glTexImage2D(GL_TEXTURE_2D, 0, GL_DEPTH_COMPONENT, width, height, 0, GL_DEPTH_COMPONENT, GL_FLOAT, 0);
-        glFramebufferTexture2D(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_TEXTURE_2D, depthTexture, 0);
+        depthTexture.setSizeInBytes((long) width * height * Float.BYTES);
+        glFramebufferTexture2D(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_TEXTURE_2D, depthTexture.getId(), 0);
 
         // Disable the reading
         glReadBuffer(GL_NONE);
@@ -80,56 +89,31 @@ public class PickingRenderer extends Renderer {
 
     @Override
     protected RenderBatch createBatch(int zIndex) {
-        return new RenderBatch(MAX_BATCH_SIZE, zIndex, Primitive.QUAD,
-                ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT4, ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT, ShaderDatatype.FLOAT
-        );
+        return new RenderBatch(MAX_BATCH_SIZE, zIndex, Primitive.QUAD, VertexLayout.SPRITE_WITH_DATA);
+    }
+
+    @Override
+    public void extract() {
+        // The entity id is stored one higher, so 0 is no entity
+        backSnapshot.extract(sprites, Window.getScene().camera(), Engine.alpha(),
+                sprite -> sprite.gameObject.getUid() + 1);
+    }
+
+    @Override
+    public void swapSnapshots() {
+        SpriteSnapshot snapshot = frontSnapshot;
+        frontSnapshot = backSnapshot;
+        backSnapshot = snapshot;
+    }
+
+    @Override
+    public boolean canBuildAhead() {
+        return true;
     }
 
     @Override
     protected void rebuffer() {
-        for (SpriteRenderer sprite : sprites) {
-            RenderBatch batch = getAvailableBatch(sprite.getTexture(), sprite.gameObject.zIndex());
-
-            Vector2f pos = sprite.gameObject.transform.position;
-            Vector2f scale = sprite.gameObject.transform.scale;
-            Vector2f[] texCoords = sprite.getTexCoords();
-
-            int texID;
-            if (sprite.getTexture() != null) {
-                texID = batch.addTexture(sprite.getTexture());
-            } else {
-                texID = 0;
-            }
-
-            // Push vertices to the batchfloat xAdd = 1.0f;
-            float xAdd = 1.0f;
-            float yAdd = 1.0f;
-            for (int i = 0; i < 4; i++) {
-                switch (i) {
-                    case 1 -> yAdd = 0.0f;
-                    case 2 -> xAdd = 0.0f;
-                    case 3 -> yAdd = 1.0f;
-                }
-
-                float scaledX = (xAdd * scale.x);
-                float scaledY = (yAdd * scale.y);
-
-                // Load position
-                batch.pushVec2(pos.x + scaledX, pos.y + scaledY);
-
-                // Load color
-                batch.pushVec4(sprite.getColor().toNormalizedVec4f());
-
-                // Load texture coordinates
-                batch.pushVec2(texCoords[i]);
-
-                // Load texture id
-                batch.pushInt(texID);
-
-                // Load entity id
-                batch.pushInt(sprite.gameObject.getUid() + 1);
-            }
-        }
+        frontSnapshot.rebuffer(this);
     }
 
     @Override
@@ -152,37 +136,44 @@ public class PickingRenderer extends Renderer {
     protected void uploadUniforms(Shader shader) {
         shader.uploadIntArray("uTextures", textureSlots);
 
-        shader.uploadMat4f("uProjection", Window.getScene().camera().getProjectionMatrix());
-        shader.uploadMat4f("uView", Window.getScene().camera().getViewMatrix());
+        shader.uploadMat4f("uProjection", frontSnapshot.projection);
+        shader.uploadMat4f("uView", frontSnapshot.view);
     }
 
+    /**
+     * The ids are written as they are, blending would mix the ids of overlapping sprites.
+     */
     @Override
-    public void render() {
-        glDisable(GL_BLEND);
-        framebuffer.bind();
-        glViewport(0, 0, Window.getWidth(), Window.getHeight());
-        currentShader.use();
-        uploadUniforms(currentShader);
-
-        glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
-        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
-
-        start();
-        rebuffer();
-        finish();
+    public boolean usesBlending() {
+        return false;
+    }
 
-        for (RenderBatch batch : batches) {
-            batch.bind();
-            glDrawElements(batch.primitive().openglPrimitive, batch.getVertexCount(), GL_UNSIGNED_INT, 0);
-            batch.unbind();
-        }
+    /**
+     * Frees the batches, and the framebuffer and textures the picking renderer created itself.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        pickingTexture.release();
+        depthTexture.release();
+        framebuffer.release();
+    }
 
-        currentShader.detach();
-        framebuffer.unbind();
-        glEnable(GL_BLEND);
+    /**
+     * Checks whether the rectangle of one of the sprites contains the point. The picking texture is only needed when
+     * there is one, {@link #readPixel} returns -1 until the next check otherwise.
+     * <p>
+     * The sprites are tested where the picking texture draws them: at their interpolated position in the snapshot that
+     * is drawn this frame, not at the position of the last tick.
+     */
+    public boolean updateSpriteUnderMouse(float worldX, float worldY) {
+        spriteUnderMouse = frontSnapshot.contains(worldX, worldY);
+        return spriteUnderMouse;
     }
 
     public int readPixel(int x, int y) {
+        // The picking texture wasn't drawn, it still holds the sprites of an older frame
+        if (!spriteUnderMouse) return -1;
         if (framebuffer == null) {
             System.out.println("Framebuffer is null");
             return -1;
@@ -198,5 +189,7 @@ public class PickingRenderer extends Renderer {
 
     @Override
     public void prepare() {
+        glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
     }
 }
@@ -1,14 +1,20 @@
 package engine.graphics.renderer;
 
+import engine.graphics.GpuHandle;
+import engine.graphics.GpuResources;
 import engine.graphics.Primitive;
+import engine.graphics.QuadArrays;
 import engine.graphics.ShaderDatatype;
+import engine.graphics.VertexLayout;
 import engine.util.Color;
 
 import org.joml.Vector2f;
 import org.joml.Vector3f;
 import org.joml.Vector4f;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.lwjgl.opengl.GL15.*;
@@ -20,40 +26,58 @@ import static org.lwjgl.opengl.GL30.glGenVertexArrays;
 /**
  * A RenderBatch is a collection of sprites that are rendered together. This is done to reduce the number of draw calls.
  * The RenderBatch is sorted by zIndex and then rendered.
+ * <p>
+ * A batch starts with room for {@link #INITIAL_CAPACITY} primitives and doubles its capacity when it is full, up to
+ * {@code maxBatchSize}. The buffers on the GPU follow the capacity the next time the batch is {@link #finish() finished},
+ * so a layer with a few sprites doesn't hold the memory of a full batch.
  */
 public class RenderBatch implements Comparable<RenderBatch> {
+    /** Amount of primitives a new batch has room for */
+    static final int INITIAL_CAPACITY = 16;
+
     /** Amount of floats/ints in a single vertex */
-    private int vertexCount;
+    private final int vertexCount;
     /** Amount of bytes for a single vertex */
-    private int vertexSizeBytes;
+    private final int vertexSizeBytes;
 
-    private final ShaderDatatype[] attributes;
+    private final VertexLayout layout;
+    /** Writes the quads of {@link #pushQuad}, null if the layout isn't a sprite layout */
+    private final VertexLayout.QuadWriter quadWriter;
     private final Primitive primitive;
 
     public float[] vertices;
 
     private List<Texture> textures;
 
-    private int vaoID, vboID, eboID;
+    private int vaoID, vboID;
+    private GpuHandle vao, vbo, ebo;
     private int maxBatchSize;
+    /** Amount of primitives {@link #vertices} has room for */
+    private int capacity;
+    /** Amount of primitives the buffers on the GPU have room for */
+    private int gpuCapacity;
     private boolean hasRoom;
     public int dataOffset;
     private int textureIndex;
 
     private int zIndex;
+    /** Amount of frames in a row nothing was pushed to the batch, see {@link Renderer#finish()} */
+    int emptyFrames;
 
     public RenderBatch(int maxBatchSize, int zIndex, Primitive primitive, ShaderDatatype... attributes) {
+        this(maxBatchSize, zIndex, primitive, new VertexLayout(attributes));
+    }
+
+    public RenderBatch(int maxBatchSize, int zIndex, Primitive primitive, VertexLayout layout) {
         this.zIndex = zIndex;
         this.maxBatchSize = maxBatchSize;
         this.primitive = primitive;
-        this.attributes = attributes;
-
-        for (ShaderDatatype s : attributes) {
-            vertexCount += s.count;
-            vertexSizeBytes += s.sizeInBytes;
-        }
-        // 4 vertices quads
-        vertices = new float[maxBatchSize * primitive.vertexCount * vertexCount];
+        this.layout = layout;
+        this.quadWriter = layout.quadWriter();
+        this.vertexCount = layout.floatCount();
+        this.vertexSizeBytes = layout.sizeInBytes();
+        capacity = Math.min(INITIAL_CAPACITY, maxBatchSize);
+        vertices = new float[capacity * primitive.vertexCount * vertexCount];
 
         textureIndex = 0;
         dataOffset = 0;
@@ -63,25 +87,24 @@ public class RenderBatch implements Comparable<RenderBatch> {
 
     /**
      * Create the GPU resources.
-     * Generates a vao, a dynamic vbo, and a static buffer of indices.
+     * Generates a vao and a dynamic vbo, the indices come from the buffer of the primitive that all batches share.
      */
     public void init() {
-        // Tell GPU to give us enough space for doing all this
         // Generate and bind VAO
-        vaoID = glGenVertexArrays();
+        vao = GpuResources.track(GpuHandle.Type.VERTEX_ARRAY, glGenVertexArrays(), "RenderBatch");
+        vaoID = vao.getId();
         glBindVertexArray(vaoID);
 
-        // Allocate space for vertices
-        vboID = glGenBuffers();
+        // The vertex buffer gets its storage in allocateGpuStorage, once the batch knows how much it needs
+        vbo = GpuResources.track(GpuHandle.Type.BUFFER, glGenBuffers(), "RenderBatch vertices");
+        vboID = vbo.getId();
         glBindBuffer(GL_ARRAY_BUFFER, vboID);
-        glBufferData(GL_ARRAY_BUFFER, (long) maxBatchSize * primitive.vertexCount * vertexSizeBytes, GL_DYNAMIC_DRAW);
 
-        // Create and upload indices buffer
-        eboID = glGenBuffers();
-        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboID);
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, generateIndices(), GL_STATIC_DRAW);
+        ebo = IndexBuffers.acquire(primitive, capacity);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo.getId());
 
         // Enable the buffer attribute pointers (telling how our vertex is built)
+        ShaderDatatype[] attributes = layout.attributes();
         int currentOffset = 0;
         for (int i = 0; i < attributes.length; i++) {
             ShaderDatatype attribute = attributes[i];
@@ -89,6 +112,56 @@ public class RenderBatch implements Comparable<RenderBatch> {
             glEnableVertexAttribArray(i);
             currentOffset += attribute.sizeInBytes;
         }
+        allocateGpuStorage();
+        glBindVertexArray(0);
+    }
+
+    /**
+     * Resizes the vertex buffer on the GPU to the capacity of the batch, and makes sure the shared index buffer has
+     * indices for all of it.
+     */
+    private void allocateGpuStorage() {
+        glBindBuffer(GL_ARRAY_BUFFER, vboID);
+        long vertexBytes = (long) capacity * primitive.vertexCount * vertexSizeBytes;
+        glBufferData(GL_ARRAY_BUFFER, vertexBytes, GL_DYNAMIC_DRAW);
+        vbo.setSizeInBytes(vertexBytes);
+
+        IndexBuffers.ensureCapacity(primitive, capacity);
+        gpuCapacity = capacity;
+    }
+
+    private void grow() {
+        capacity = Math.min(capacity * 2, maxBatchSize);
+        vertices = Arrays.copyOf(vertices, capacity * primitive.vertexCount * vertexCount);
+    }
+
+    /**
+     * Shrinks the batch back to its initial capacity, on the CPU and the GPU, and moves it to another zIndex. Used when
+     * the batch is put aside to be reused later.
+     */
+    void trim(int zIndex) {
+        this.zIndex = zIndex;
+        start();
+        emptyFrames = 0;
+        if (capacity == Math.min(INITIAL_CAPACITY, maxBatchSize)) return;
+
+        capacity = Math.min(INITIAL_CAPACITY, maxBatchSize);
+        vertices = new float[capacity * primitive.vertexCount * vertexCount];
+        if (vao != null) {
+            allocateGpuStorage();
+        }
+    }
+
+    /**
+     * Frees the vao and the buffers of the batch at the end of the frame.
+     */
+    public void release() {
+        if (vao == null) return;
+
+        vao.release();
+        vbo.release();
+        ebo.release();
+        vao = null;
     }
 
     public void start() {
@@ -100,9 +173,16 @@ public class RenderBatch implements Comparable<RenderBatch> {
 
 
     /**
-     * Finish setting batch data. upload to gpu
+     * Finish setting batch data. upload to gpu. The GPU resources of a new batch are created here, so a batch can be
+     * created and filled on another thread than the GL thread.
      */
     public void finish() {
+        if (vao == null) {
+            init();
+        } else if (gpuCapacity != capacity) {
+            // The batch grew this frame
+            allocateGpuStorage();
+        }
         glBindBuffer(GL_ARRAY_BUFFER, vboID);
         glBufferSubData(GL_ARRAY_BUFFER, 0, vertices);
     }
@@ -147,24 +227,30 @@ public class RenderBatch implements Comparable<RenderBatch> {
         return (dataOffset * primitive.elementCount) / (vertexCount * primitive.vertexCount);
     }
 
+    public boolean hasRoom() {
+        return this.hasRoom;
+    }
+
     /**
-     * This method will generate the indices for the batch by calling {@link Primitive#elementCreation} for each sprite in the batch.
+     * @return whether nothing was pushed to the batch since it was started.
      */
-    private int[] generateIndices() {
-        int[] elements = new int[primitive.elementCount * maxBatchSize];
-        for (int i = 0; i < maxBatchSize; i++) {
-            primitive.elementCreation.accept(elements, i);
-        }
+    public boolean isEmpty() {
+        return dataOffset == 0;
+    }
 
-        return elements;
+    public boolean hasTextureRoom() {
+        return this.textures.size() < 8;
     }
 
-    public boolean hasRoom() {
-        return this.hasRoom;
+    public int getTextureCount() {
+        return this.textures.size();
     }
 
-    public boolean hasTextureRoom() {
-        return this.textures.size() < 8;
+    /**
+     * @return the texture that is bound to slot {@code index + 1}, slot 0 is reserved for drawing without texture.
+     */
+    public Texture getTexture(int index) {
+        return this.textures.get(index);
     }
 
     public boolean hasTexture(Texture tex) {
@@ -189,7 +275,11 @@ public class RenderBatch implements Comparable<RenderBatch> {
 
     private void checkFullness() {
         if (dataOffset >= vertices.length) {
-            hasRoom = false;
+            if (capacity < maxBatchSize) {
+                grow();
+            } else {
+                hasRoom = false;
+            }
         }
     }
 
@@ -248,4 +338,60 @@ public class RenderBatch implements Comparable<RenderBatch> {
     public void pushColor(Color color) {
         pushVec4(color.r(), color.g(), color.b(), color.a());
     }
+
+    /**
+     * Pushes the four corners of a sprite with the {@link VertexLayout.QuadWriter} of the layout, which writes all
+     * attributes in one go. The batch has room for a whole quad as long as it {@link #hasRoom() has room}, so the
+     * capacity is only checked once, after the quad.
+     *
+     * @param texId the texture slot from {@link #addTexture(Texture)}, 0 for no texture
+     * @param data  the extra float of {@link VertexLayout#SPRITE_WITH_DATA}
+     */
+    public void pushQuad(float x, float y, float width, float height, Color color, Vector2f[] texCoords, int texId,
+                         float data) {
+        assert quadWriter != null && primitive == Primitive.QUAD : "Error: (RenderBatch) The batch has no quad writer";
+        dataOffset = quadWriter.write(vertices, dataOffset, x, y, width, height, color, texCoords, texId, data);
+        checkFullness();
+    }
+
+    public void pushQuad(float x, float y, float width, float height, Color color, Vector2f[] texCoords, int texId) {
+        pushQuad(x, y, width, height, color, texCoords, texId, 0.0f);
+    }
+
+    /**
+     * Pushes a range of quads with {@link VertexLayout#writeQuads}, as many as the batch has room for.
+     * The texture slots of the quads have to be slots of this batch.
+     *
+     * @return the amount of quads that were pushed, less than {@code count} when the batch is full
+     */
+    public int pushQuads(QuadArrays quads, int from, int count) {
+        assert quadWriter != null && primitive == Primitive.QUAD : "Error: (RenderBatch) The batch has no quad writer";
+        int quadFloats = primitive.vertexCount * vertexCount;
+        int pushed = 0;
+        while (pushed < count && hasRoom) {
+            int amount = Math.min(count - pushed, getRemainingSpace() / quadFloats);
+            dataOffset = layout.writeQuads(quads, from + pushed, amount, vertices, dataOffset);
+            pushed += amount;
+            checkFullness();
+        }
+        return pushed;
+    }
+
+    /**
+     * Copies vertices that are already in the layout of this batch, like a buffer that is kept between frames.
+     *
+     * @param count the amount of floats, at most {@link #getRemainingSpace()}
+     */
+    public void pushFloats(FloatBuffer source, int offset, int count) {
+        source.get(offset, vertices, dataOffset, count);
+        dataOffset += count;
+        checkFullness();
+    }
+
+    /**
+     * @return the amount of floats that can be pushed before the batch is full or has to grow.
+     */
+    public int getRemainingSpace() {
+        return vertices.length - dataOffset;
+    }
 }
@@ -1,11 +1,13 @@
 package engine.graphics.renderer;
 
 import engine.ecs.GameObject;
+import engine.graphics.DamageRegion;
 import engine.graphics.Shader;
 import engine.util.Layer;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.lwjgl.opengl.GL11.*;
@@ -14,19 +16,31 @@ import static org.lwjgl.opengl.GL11.*;
  * The Renderer class is responsible for rendering all GameObjects in the game. It separates GameObjects by their Z-Index into {@link RenderBatch batches}.
  * Each batch is then rendered in order of their Z-Index to ensure that GameObjects with higher Z-Index are rendered on top of GameObjects with lower Z-Index.
  * <p>This class also keeps track of the {@link #currentShader current shader}.</p>
+ * <p>Empty batches are not drawn. A batch that stays empty for {@link #IDLE_FRAMES} frames, for example the batch of a
+ * zIndex that isn't used anymore, is taken out of the list and kept aside to be reused for the next batch that is
+ * needed. Only {@link #MAX_SPARE_BATCHES} are kept, the others are released.</p>
  */
 public abstract class Renderer {
+    /** Amount of frames a batch has to stay empty before it is taken out of the list */
+    private static final int IDLE_FRAMES = 300;
+    private static final int MAX_SPARE_BATCHES = 4;
+
     /**
      * Texture slots to be uploaded to the shader. You don't have to upload them in your custom renderer.
      */
     protected final int[] textureSlots = {0, 1, 2, 3, 4, 5, 6, 7};
 
     protected List<RenderBatch> batches;
+    /** Batches that were taken out of the list, trimmed to their initial capacity */
+    private final List<RenderBatch> spareBatches;
     protected Shader currentShader;
     protected Framebuffer framebuffer;
+    /** Whether the batches were built for the next draw */
+    private boolean built = false;
 
     public Renderer() {
         this.batches = new ArrayList<>();
+        this.spareBatches = new ArrayList<>();
     }
 
     /**
@@ -57,6 +71,12 @@ public abstract class Renderer {
      */
     protected abstract void uploadUniforms(Shader shader);
 
+    /**
+     * Upload the uniforms that depend on the batch that is about to be drawn, like the kind of its textures.
+     */
+    protected void uploadBatchUniforms(Shader shader, RenderBatch batch) {
+    }
+
     /**
      * Rebuffer all the data into batches
      */
@@ -80,8 +100,25 @@ public abstract class Renderer {
      * Finish Setting data for all batches. Upload to gpu ready for rendering
      */
     protected void finish() {
-        for (RenderBatch batch : batches) {
-            batch.finish();
+        Iterator<RenderBatch> iterator = batches.iterator();
+        while (iterator.hasNext()) {
+            RenderBatch batch = iterator.next();
+            if (!batch.isEmpty()) {
+                batch.emptyFrames = 0;
+                batch.finish();
+            } else if (++batch.emptyFrames >= IDLE_FRAMES) {
+                iterator.remove();
+                retire(batch);
+            }
+        }
+    }
+
+    private void retire(RenderBatch batch) {
+        if (spareBatches.size() < MAX_SPARE_BATCHES) {
+            batch.trim(batch.zIndex());
+            spareBatches.add(batch);
+        } else {
+            batch.release();
         }
     }
 
@@ -91,42 +128,141 @@ public abstract class Renderer {
      */
     public RenderBatch getAvailableBatch(Texture texture, int zIndex) {
         for (RenderBatch batch : batches) {
-            if (batch.hasRoom() && batch.zIndex() == zIndex)
-                return batch;
+            if (batch.zIndex() != zIndex || !batch.hasRoom()) continue;
 
-            if (!batch.hasTextureRoom())
-                if (batch.hasTexture(texture) && batch.zIndex() == zIndex)
-                    return batch;
+            if (texture == null || batch.hasTextureRoom() || batch.hasTexture(texture))
+                return batch;
         }
 
-        // All batches full
-        RenderBatch batch = createBatch(zIndex);
-        batch.init();
-        batch.start();
+        // All batches full, reuse a spare batch before creating one
+        RenderBatch batch;
+        if (!spareBatches.isEmpty()) {
+            batch = spareBatches.remove(spareBatches.size() - 1);
+            batch.trim(zIndex);
+        } else {
+            // The GPU resources are created when the batch is finished, on the GL thread
+            batch = createBatch(zIndex);
+            batch.start();
+        }
         batches.add(batch);
         Collections.sort(batches);
         return batch;
     }
 
+    /**
+     * Draws into the framebuffer of the renderer. A {@link engine.graphics.RenderGraph render graph} binds the target
+     * of the pass itself and calls {@link #draw()} instead.
+     */
     public void render() {
+        if (!usesBlending()) glDisable(GL_BLEND);
         framebuffer.bind();
-        prepare();
-        currentShader.use();
-        uploadUniforms(currentShader);
+        draw();
+        framebuffer.unbind();
+        if (!usesBlending()) glEnable(GL_BLEND);
+    }
+
+    /**
+     * Copies what the renderer draws out of the scene, called at the end of the update. Renderers that can be built on
+     * the render worker keep the copy in a snapshot, the others read the scene while they draw and do nothing here.
+     */
+    public void extract() {
+    }
+
+    /**
+     * Makes the snapshot that was extracted last the one that is built and drawn.
+     */
+    public void swapSnapshots() {
+    }
+
+    /**
+     * @return whether {@link #build()} only reads the snapshot of the renderer, so it can run on the render worker.
+     */
+    public boolean canBuildAhead() {
+        return false;
+    }
 
+    /**
+     * Rebuffers the batches without any OpenGL calls. Called on the render worker for the renderers that
+     * {@link #canBuildAhead() can build ahead}, {@link #draw()} builds the batches itself otherwise.
+     */
+    public void build() {
         start();
         rebuffer();
+        built = true;
+    }
+
+    /**
+     * Adds the areas where what the renderer draws changed since the last frame to the region. Called before the
+     * frame is drawn, for the renderers that draw into a framebuffer with a {@link Framebuffer#getDamage() damage
+     * region}.
+     */
+    public void addDamage(DamageRegion damage) {
+    }
+
+    /**
+     * Rebuffers the batches, unless they were {@link #build() built} already, and draws them into the framebuffer that
+     * is bound. When the framebuffer has a damage region, only its rectangles are drawn.
+     */
+    public void draw() {
+        currentShader.use();
+        uploadUniforms(currentShader);
+
+        if (!built) {
+            start();
+            rebuffer();
+        }
+        built = false;
         finish();
 
+        DamageRegion damage = framebuffer != null ? framebuffer.getDamage() : null;
+        if (damage == null || damage.isFull()) {
+            prepare();
+            drawBatches();
+        } else {
+            glEnable(GL_SCISSOR_TEST);
+            for (int i = 0; i < damage.count(); i++) {
+                glScissor(damage.getX(i), damage.getY(i), damage.getWidth(i), damage.getHeight(i));
+                prepare();
+                drawBatches();
+            }
+            glDisable(GL_SCISSOR_TEST);
+        }
+        currentShader.detach();
+    }
+
+    private void drawBatches() {
         for (RenderBatch batch : batches) {
+            if (batch.isEmpty()) continue;
+
             batch.bind();
+            uploadBatchUniforms(currentShader, batch);
             // Skip rendering picking texture for all batches with NO_INTERACTION (tooltip, etc)
 //            if (renderingPickingTexture && batch.zIndex() == Layer.NO_INTERACTION) continue;
             glDrawElements(batch.primitive().openglPrimitive, batch.getVertexCount(), GL_UNSIGNED_INT, 0);
             batch.unbind();
         }
-        currentShader.detach();
-        framebuffer.unbind();
+    }
+
+    /**
+     * @return whether the renderer draws with blending, which is enabled for the whole frame otherwise.
+     */
+    public boolean usesBlending() {
+        return true;
+    }
+
+    /**
+     * Frees the batches on the GPU, called when the renderer isn't used anymore. The framebuffer is only freed by the
+     * renderer that created it, most renderers draw into the framebuffer of the window.
+     */
+    public void dispose() {
+        for (RenderBatch batch : batches) {
+            batch.release();
+        }
+        batches.clear();
+        for (RenderBatch batch : spareBatches) {
+            batch.release();
+        }
+        spareBatches.clear();
     }
 
     /**
@@ -0,0 +1,113 @@
+package engine.graphics.renderer;
+
+import engine.ecs.Transform;
+import engine.ecs.components.SpriteRenderer;
+import engine.graphics.Camera;
+import engine.graphics.DamageRegion;
+import engine.graphics.QuadArrays;
+import engine.util.Engine;
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A copy of the sprites of a renderer and the camera, taken at the end of the update of a frame. The batches are built
+ * from the copy instead of the game objects, so they can be built on the render worker while the next frame is
+ * updated.
+ * <p>
+ * A renderer keeps two snapshots and reuses them every frame: one that is filled by the update, and one that is built
+ * and drawn.
+ */
+final class SpriteSnapshot {
+    /** The extra float of a sprite, like its cooldown or the id of its game object */
+    @FunctionalInterface
+    interface DataFunction {
+        float data(SpriteRenderer sprite);
+    }
+
+    private final QuadArrays quads = new QuadArrays();
+    private Texture[] textures = new Texture[64];
+    private int[] zIndices = new int[64];
+    final Matrix4f projection = new Matrix4f();
+    final Matrix4f view = new Matrix4f();
+
+    /**
+     * Copies the sprites, at their position between the last two ticks of the game logic.
+     *
+     * @param alpha how far the frame is between the two ticks, see {@link Engine#alpha()}
+     */
+    void extract(List<SpriteRenderer> sprites, Camera camera, float alpha, DataFunction data) {
+        quads.clear();
+        if (textures.length < sprites.size()) {
+            textures = Arrays.copyOf(textures, sprites.size());
+            zIndices = Arrays.copyOf(zIndices, sprites.size());
+        }
+
+        for (int i = 0; i < sprites.size(); i++) {
+            SpriteRenderer sprite = sprites.get(i);
+            Transform transform = sprite.gameObject.transform;
+            float x = transform.interpolateX(alpha);
+            float y = transform.interpolateY(alpha);
+            Vector2f scale = transform.scale;
+            // The corners are top right, bottom right, bottom left and top left, see Sprite
+            Vector2f[] texCoords = sprite.getTexCoords();
+            quads.add(x, y, scale.x, scale.y, texCoords[2].x, texCoords[2].y, texCoords[0].x, texCoords[0].y,
+                    sprite.getColor().toRGBA8(), 0, data.data(sprite));
+            textures[i] = sprite.getTexture();
+            zIndices[i] = sprite.gameObject.zIndex();
+        }
+        // Textures of sprites that were removed aren't kept alive by the snapshot
+        Arrays.fill(textures, sprites.size(), textures.length, null);
+
+        projection.set(camera.getProjectionMatrix());
+        view.set(camera.getViewMatrix());
+    }
+
+    /**
+     * @return whether the rectangle of one of the sprites contains the point, at the interpolated position the sprite
+     * is drawn at.
+     */
+    boolean contains(float x, float y) {
+        for (int i = 0; i < quads.size(); i++) {
+            float left = quads.x[i];
+            float bottom = quads.y[i];
+            if (x >= left && x <= left + quads.width[i] && y >= bottom && y <= bottom + quads.height[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Damages the screen where the sprites differ from the ones the tracker saw last.
+     */
+    void addDamage(DamageTracker tracker, DamageRegion damage) {
+        tracker.compare(quads, textures, projection, view, damage);
+    }
+
+    /**
+     * Pushes the sprites into the batches of the renderer. Sprites after each other with the same texture and zIndex
+     * are expanded together. Doesn't call OpenGL.
+     */
+    void rebuffer(Renderer renderer) {
+        int count = quads.size();
+        int i = 0;
+        while (i < count) {
+            Texture texture = textures[i];
+            int zIndex = zIndices[i];
+            RenderBatch batch = renderer.getAvailableBatch(texture, zIndex);
+            float texId = batch.addTexture(texture);
+
+            int end = i + 1;
+            while (end < count && textures[end] == texture && zIndices[end] == zIndex) {
+                end++;
+            }
+            for (int j = i; j < end; j++) {
+                quads.texId[j] = texId;
+            }
+            i += batch.pushQuads(quads, i, end - i);
+        }
+    }
+}
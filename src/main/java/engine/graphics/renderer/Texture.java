@@ -1,5 +1,7 @@
 package engine.graphics.renderer;
 
+import engine.graphics.GpuHandle;
+import engine.graphics.GpuResources;
 import org.lwjgl.BufferUtils;
 
 import java.nio.ByteBuffer;
@@ -16,28 +18,45 @@ import static org.lwjgl.system.MemoryUtil.NULL;
  * A class representing a 2D texture in an OpenGL context.
  * Provides functionality to load textures from image files, create blank textures,
  * and manage texture parameters such as filtering and wrapping.
+ * <p>
+ * The texture on the GPU is freed when its owner calls {@link #release()}, see {@link GpuHandle}.
  */
 public class Texture {
     private String filepath;
     private transient int texID;
+    private transient GpuHandle handle;
     private int width, height;
 
+    /**
+     * Creates a texture without a texture on the GPU, it is created by {@link #init(String)} or {@link #createTexture}.
+     */
     public Texture() {
-        this.texID = glGenTextures();
     }
 
     public Texture(int width, int height) {
+        this(width, height, GL_RGB);
+    }
+
+    /**
+     * Creates an empty texture, for example to render to.
+     *
+     * @param format the pixel format, {@link org.lwjgl.opengl.GL11#GL_RGBA GL_RGBA} if the texture needs an alpha channel
+     */
+    public Texture(int width, int height, int format) {
         this.filepath = "Generated";
+        this.width = width;
+        this.height = height;
 
         // Generate texture on GPU
-        texID = glGenTextures();
+        generate("Texture " + width + "x" + height);
         glBindTexture(GL_TEXTURE_2D, texID);
 
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
 
         // The pixels value is NULL (0L), we don't have any data yet to send to the GPU
-        glTexImage2D(GL_TEXTURE_2D, 0, GL_RGB, width, height, 0, GL_RGB, GL_UNSIGNED_BYTE, NULL);
+        glTexImage2D(GL_TEXTURE_2D, 0, format, width, height, 0, format, GL_UNSIGNED_BYTE, NULL);
+        handle.setSizeInBytes((long) width * height * (format == GL_RGBA ? 4 : 3));
     }
 
     /**
@@ -66,7 +85,7 @@ public class Texture {
         this.filepath = filepath;
 
         // Generate texture on GPU
-        texID = glGenTextures();
+        generate(filepath);
         glBindTexture(GL_TEXTURE_2D, texID);
 
         // Set texture parameters
@@ -94,6 +113,7 @@ public class Texture {
             } else {
                 assert false : "Error: (Texture) Unknown number of channels '" + channels.get(0) + "'";
             }
+            handle.setSizeInBytes((long) this.width * this.height * channels.get(0));
         } else {
             assert false : "Error: (Texture) Could not load image '" + filepath + "'";
         }
@@ -101,6 +121,31 @@ public class Texture {
         stbi_image_free(image);
     }
 
+    private void generate(String owner) {
+        assert handle == null : "Error: (Texture) The texture '" + owner + "' was already created";
+        handle = GpuResources.track(GpuHandle.Type.TEXTURE, glGenTextures(), owner);
+        texID = handle.getId();
+    }
+
+    /**
+     * Adds a reference to the texture, so it isn't freed before {@link #release()} is called for it as well.
+     */
+    public Texture retain() {
+        if (handle != null) {
+            handle.retain();
+        }
+        return this;
+    }
+
+    /**
+     * Gives back a reference to the texture, the texture is freed at the end of the frame when it was the last one.
+     */
+    public void release() {
+        if (handle != null) {
+            handle.release();
+        }
+    }
+
     public void bind() {
         glBindTexture(GL_TEXTURE_2D, texID);
     }
@@ -118,6 +163,9 @@ public class Texture {
         this.width = width;
         this.height = height;
 
+        if (handle == null) {
+            generate("Texture " + width + "x" + height);
+        }
         bind();
 
         // Set texture parameters
@@ -132,9 +180,18 @@ public class Texture {
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
 
         glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, buffer);
+        handle.setSizeInBytes((long) width * height * 4);
         return this;
     }
 
+    /**
+     * Replaces a region of the texture with RGBA pixels. The texture has to be created with {@link #createTexture} first.
+     */
+    public void update(int x, int y, int width, int height, ByteBuffer pixels) {
+        bind();
+        glTexSubImage2D(GL_TEXTURE_2D, 0, x, y, width, height, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+    }
+
     public int getWidth() {
         return this.width;
     }
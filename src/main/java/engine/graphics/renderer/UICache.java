@@ -0,0 +1,109 @@
+package engine.graphics.renderer;
+
+import engine.graphics.Window;
+import engine.ui.UIComponent;
+import org.joml.Matrix4f;
+import org.joml.Vector4fc;
+
+import static org.lwjgl.opengl.GL14.glBlendFuncSeparate;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * The texture a {@link UIComponent#isCacheable() cacheable} UI subtree is rendered to.
+ * <p>
+ * The subtree and the texts on it are drawn once into an offscreen framebuffer that covers the bounds of the subtree,
+ * with their own {@link UIRenderer}. After that the {@link UIRenderer} of the scene draws the whole subtree as one quad,
+ * until something in it is invalidated and the texture is rendered again.
+ * <p>
+ * The alpha channel of the texture is kept, but translucent parts are drawn slightly darker than they would be without
+ * the cache. Cached panels normally have an opaque background, where this doesn't matter.
+ */
+final class UICache {
+    final UIComponent root;
+
+    private final Matrix4f projection = new Matrix4f();
+    private final UIRenderer uiRenderer;
+    private Framebuffer framebuffer;
+
+    /** The rectangle in world coordinates the texture covers */
+    private float x, y, width, height;
+
+    UICache(UIComponent root) {
+        this.root = root;
+        this.uiRenderer = new UIRenderer(projection);
+        uiRenderer.init();
+        uiRenderer.add(root);
+    }
+
+    /**
+     * Renders the subtree into the texture, resizing the texture if the bounds of the subtree changed.
+     */
+    void render() {
+        // Whole world units, so the edges of the components don't fall between pixels
+        Vector4fc bounds = root.getSubtreeBounds();
+        x = (float) Math.floor(bounds.x());
+        y = (float) Math.floor(bounds.y());
+        width = (float) Math.ceil(bounds.z()) - x;
+        height = (float) Math.ceil(bounds.w()) - y;
+
+        // One pixel of the texture per pixel of the window
+        float pixelsPerUnit = Window.getWidth() / Window.getScene().camera().getProjectionSize().x;
+        int pixelWidth = Math.max(1, (int) Math.ceil(width * pixelsPerUnit));
+        int pixelHeight = Math.max(1, (int) Math.ceil(height * pixelsPerUnit));
+        if (framebuffer == null || framebuffer.getTexture().getWidth() != pixelWidth || framebuffer.getTexture().getHeight() != pixelHeight) {
+            if (framebuffer != null) {
+                framebuffer.release();
+            }
+            framebuffer = new Framebuffer(pixelWidth, pixelHeight, true);
+            uiRenderer.framebuffer = framebuffer;
+        }
+        projection.setOrtho(x, x + width, y, y + height, 0.0f, 100.0f);
+
+        framebuffer.bind();
+        glViewport(0, 0, pixelWidth, pixelHeight);
+        glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        glClear(GL_COLOR_BUFFER_BIT);
+        // Keep the alpha of the texture, instead of multiplying it by itself
+        glBlendFuncSeparate(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA, GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+
+        uiRenderer.render();
+
+        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        glViewport(0, 0, Window.getWidth(), Window.getHeight());
+        root.setCacheDirty(false);
+    }
+
+    /**
+     * @return the texture, or null if the subtree wasn't rendered yet.
+     */
+    Texture getTexture() {
+        return framebuffer != null ? framebuffer.getTexture() : null;
+    }
+
+    float getX() {
+        return x;
+    }
+
+    float getY() {
+        return y;
+    }
+
+    float getWidth() {
+        return width;
+    }
+
+    float getHeight() {
+        return height;
+    }
+
+    /**
+     * Frees the texture and the batches of the offscreen renderer.
+     */
+    void dispose() {
+        uiRenderer.dispose();
+        if (framebuffer != null) {
+            framebuffer.release();
+            framebuffer = null;
+        }
+    }
+}
@@ -1,25 +1,90 @@
 package engine.graphics.renderer;
 
 import engine.graphics.*;
+import engine.ui.Panel;
 import engine.ui.RenderableComponent;
+import engine.ui.Text;
+import engine.ui.TextView;
 import engine.ui.UIComponent;
+import engine.ui.fonts.Font;
+import engine.ui.fonts.Glyph;
 import engine.util.AssetPool;
+import engine.util.Color;
 import engine.util.Layer;
 import org.joml.Matrix4f;
 import org.joml.Vector2f;
-import org.joml.Vector4f;
+import org.joml.Vector2fc;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Draws the UI: the sprites and colors of the components, and the texts on them.
+ * <p>
+ * Everything goes into the same batches with one shader, so a label on a panel doesn't start a second draw stream.
+ * The UI trees are walked from the roots every frame, and every component is followed by the texts that are attached to
+ * it before its children are drawn, so labels are drawn on top of their own component and below the components that
+ * are drawn later. Texts that are not attached to a component are drawn last.
+ * <p>
+ * Glyph atlas pages and sprite textures share the texture slots of a batch. The shader treats a slot as a signed
+ * distance field when the bit of the slot is set in {@code uDistanceFieldSlots}, and as a normal texture otherwise.
+ */
 public class UIRenderer extends Renderer {
     private static final int MAX_BATCH_SIZE = 1000;
     private static final int Z_INDEX = Layer.TOP;
+    private static final Vector2f[] FULL_TEXTURE = {
+            new Vector2f(1, 1),
+            new Vector2f(1, 0),
+            new Vector2f(0, 0),
+            new Vector2f(0, 1)
+    };
 
-    private final List<RenderableComponent> components;
+    /** The roots of the UI trees, in the order they are drawn */
+    private final List<UIComponent> roots;
+    /** Texts that are not attached to a component. Texts that are, are drawn with their component. */
+    private final List<Text> texts;
+    /** The textures of the cacheable subtrees, created the first time the subtree is drawn */
+    private final Map<UIComponent, UICache> caches;
+
+    /** Atlas pages of the fonts that store a signed distance field instead of coverage */
+    private final Set<Texture> distanceFieldTextures;
+    /** The last distance field page that was added to {@link #distanceFieldTextures}, most glyphs share a page */
+    private Texture lastDistanceFieldTexture;
+    /**
+     * Goes up every frame, fonts use it to find the atlas pages that haven't been drawn from recently. Shared with the
+     * renderers of cached UI, which draw within the frame of the scene.
+     */
+    private static long frame;
+
+    /** Projection of an offscreen renderer, null when the renderer draws the scene with the camera */
+    private final Matrix4f projection;
+
+    /** The quads of the frame and their textures, compared to the last frame to find what changed */
+    private final QuadArrays quads = new QuadArrays();
+    private Texture[] quadTextures = new Texture[64];
+    private final DamageTracker damageTracker = new DamageTracker();
+    /** The UI isn't moved by the camera, only projected */
+    private static final Matrix4f NO_VIEW = new Matrix4f();
 
     public UIRenderer() {
-        components = new ArrayList<>();
+        this(null);
+    }
+
+    /**
+     * Creates a renderer that draws into a texture of cached UI, see {@link UICache}. It draws every component it is
+     * given, cacheable subtrees in it are not cached again, and it doesn't advance the frame.
+     */
+    UIRenderer(Matrix4f projection) {
+        roots = new ArrayList<>();
+        texts = new ArrayList<>();
+        caches = new HashMap<>();
+        distanceFieldTextures = new HashSet<>();
+        this.projection = projection;
     }
 
     @Override
@@ -29,86 +94,294 @@ public class UIRenderer extends Renderer {
 
     @Override
     protected Framebuffer createFramebuffer() {
-        return Window.getFramebuffer();
+        // The framebuffer of an offscreen renderer is set by its cache
+        return projection == null ? Window.getFramebuffer() : null;
     }
 
     @Override
     protected RenderBatch createBatch(int zIndex) {
-        return new RenderBatch(MAX_BATCH_SIZE, zIndex, Primitive.QUAD,
-                ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT4, ShaderDatatype.FLOAT2, ShaderDatatype.FLOAT);
+        return new RenderBatch(MAX_BATCH_SIZE, zIndex, Primitive.QUAD, VertexLayout.SPRITE);
     }
 
     @Override
     protected void uploadUniforms(Shader shader) {
         shader.uploadIntArray("uTextures", textureSlots);
 
-        shader.uploadMat4f("uProjection", Window.getScene().camera().getProjectionMatrix());
-        shader.uploadMat4f("uView", Window.getScene().camera().getViewMatrix());
+        if (projection != null) {
+            shader.uploadMat4f("uProjection", projection);
+        } else {
+            shader.uploadMat4f("uProjection", Window.getScene().camera().getProjectionMatrix());
+        }
+    }
+
+    @Override
+    protected void uploadBatchUniforms(Shader shader, RenderBatch batch) {
+        // Tell the shader which texture slots hold a distance field, glyphs and sprites can share a batch
+        int distanceFieldSlots = 0;
+        for (int i = 0; i < batch.getTextureCount(); i++) {
+            if (distanceFieldTextures.contains(batch.getTexture(i))) {
+                distanceFieldSlots |= 1 << (i + 1);
+            }
+        }
+        shader.uploadInt("uDistanceFieldSlots", distanceFieldSlots);
+    }
+
+    @Override
+    public void render() {
+        renderCaches();
+        super.render();
+    }
+
+    /**
+     * Renders the cached subtrees that changed into their textures. Has to happen before the UI is drawn, the caches
+     * bind their own framebuffers.
+     */
+    public void renderCaches() {
+        for (UICache cache : caches.values()) {
+            if (cache.root.isCacheDirty()) {
+                cache.render();
+            }
+        }
+    }
+
+    /**
+     * @return whether one of the cached subtrees changed since it was rendered.
+     */
+    public boolean hasDirtyCaches() {
+        for (UICache cache : caches.values()) {
+            if (cache.root.isCacheDirty()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Renders the caches and builds the batches, then damages the screen where the quads differ from the last frame
+     * and where a cached subtree was rendered again.
+     */
+    @Override
+    public void addDamage(DamageRegion damage) {
+        Matrix4f cameraProjection = Window.getScene().camera().getProjectionMatrix();
+        // A cache that is rendered again can keep its quad, only what is in the texture changes
+        for (UICache cache : caches.values()) {
+            if (cache.root.isCacheDirty() && cache.getTexture() != null) {
+                damage.addWorld(cache.getX(), cache.getY(), cache.getWidth(), cache.getHeight(), cameraProjection);
+            }
+        }
+        // The quads of the caches are only known after they are rendered, the caches pass has nothing left to do
+        renderCaches();
+        build();
+
+        damageTracker.compare(quads, quadTextures, cameraProjection, NO_VIEW, damage);
     }
 
     @Override
     protected void rebuffer() {
-        for (RenderableComponent component : components) {
-            if (component.sprite == null) return;
-            RenderBatch batch = getAvailableBatch(component.sprite.getTexture(), Z_INDEX);
-
-            Vector2f pos = component.getAbsolutePosition();
-            Vector2f scale = component.transform.scale;
-            Vector2f[] texCoords = component.sprite.getTexCoords();
-
-            int texID;
-            if (component.sprite.getTexture() != null) {
-                texID = batch.addTexture(component.sprite.getTexture());
-            } else {
-                texID = 0;
+        if (projection == null) {
+            frame++;
+        }
+        quads.clear();
+
+        for (UIComponent root : roots) {
+            rebufferComponent(root);
+        }
+        for (Text text : texts) {
+            if (text.getParent() == null) {
+                rebufferText(text);
             }
+        }
+    }
+
+    /**
+     * Submits the component, its texts and then its children. A cacheable subtree is submitted as the single quad of
+     * its cached texture.
+     */
+    private void rebufferComponent(UIComponent component) {
+        if (projection == null && component.isCacheable()) {
+            UICache cache = caches.get(component);
+            if (cache == null) {
+                cache = new UICache(component);
+                caches.put(component, cache);
+                // Not rendered before this frame, so the texture is drawn from the next frame on
+            }
+            Texture texture = cache.getTexture();
+            if (texture != null) {
+                pushQuad(getAvailableBatch(texture, Z_INDEX), cache.getX(), cache.getY(), cache.getWidth(),
+                        cache.getHeight(), Color.WHITE, FULL_TEXTURE, texture);
+            }
+            return;
+        }
+
+        if (component instanceof RenderableComponent renderable && renderable.sprite != null) {
+            Vector2fc pos = renderable.getAbsolutePosition();
+            Vector2f scale = renderable.transform.scale;
+            Texture texture = renderable.sprite.getTexture();
+            pushQuad(getAvailableBatch(texture, Z_INDEX), pos.x(), pos.y(), scale.x, scale.y, renderable.color,
+                    renderable.sprite.getTexCoords(), texture);
+        } else if (component instanceof TextView view) {
+            rebufferTextView(view);
+        }
+
+        List<Text> componentTexts = component.getTexts();
+        for (int i = 0; i < componentTexts.size(); i++) {
+            rebufferText(componentTexts.get(i));
+        }
+
+        List<UIComponent> children = component.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            rebufferComponent(children.get(i));
+        }
+    }
+
+    private void rebufferText(Text text) {
+        float x = text.getTransform().getX();
+        float y = text.getTransform().getY();
+        if (text.getParent() != null) {
+            Vector2fc parentPosition = text.getParent().getAbsolutePosition();
+            x += parentPosition.x();
+            y += parentPosition.y();
+        }
 
-            // Push vertices to the batch
-            float xAdd = 1.0f;
-            float yAdd = 1.0f;
-            for (int i = 0; i < 4; i++) {
-                switch (i) {
-                    case 1 -> yAdd = 0.0f;
-                    case 2 -> xAdd = 0.0f;
-                    case 3 -> yAdd = 1.0f;
-                }
+        for (int i = 0; i < text.length(); i++) {
+            Glyph glyph = text.getGlyph(i);
+            if (glyph == null) continue;
 
-                float scaledX = (xAdd * scale.x);
-                float scaledY = (yAdd * scale.y);
+            submitGlyph(text.getFont(), glyph, x + text.getGlyphOffsetX(i), y + text.getGlyphOffsetY(i),
+                    text.getScale(), text.getColor());
+        }
+    }
 
-                // Load position
-                batch.pushVec2(pos.x + scaledX, pos.y + scaledY);
+    /**
+     * Lays out and submits the visible lines of a text view, from the bottom line up. Lines that are scrolled out of
+     * view are never looked at.
+     */
+    private void rebufferTextView(TextView view) {
+        Font font = view.getFont();
+        float scale = view.getScale();
+        float lineHeight = view.getLineHeight();
+        float width = view.getTransform().scale.x;
+        Vector2fc position = view.getAbsolutePosition();
 
-                // Load color
-                batch.pushColor(component.color);
+        int newestLine = view.getLineCount() - 1 - view.getScrollOffset();
+        int visibleLines = Math.min(view.getVisibleLineCount(), newestLine + 1);
+        for (int row = 0; row < visibleLines; row++) {
+            CharSequence line = view.getLine(newestLine - row);
+            float y = position.y() + row * lineHeight;
 
-                // Load texture coordinates
-                batch.pushVec2(texCoords[i]);
+            float drawX = 0;
+            for (int i = 0; i < line.length(); i++) {
+                Glyph glyph = font.getGlyph(line.charAt(i));
+                if (glyph == null) continue;
 
-                // Load texture id
-                batch.pushInt(texID);
+                // Cut the line off at the edge of the view
+                float glyphWidth = glyph.width * scale;
+                if (drawX + glyphWidth > width) break;
+
+                submitGlyph(font, glyph, position.x() + drawX, y, scale, view.getColor());
+                drawX += glyphWidth;
             }
         }
     }
 
-    public void add(RenderableComponent component) {
+    /**
+     * Puts the glyph on the atlas if needed and pushes it to a batch that has room for it, new batches are created
+     * when all batches are full.
+     */
+    private void submitGlyph(Font font, Glyph glyph, float x, float y, float scale, Color color) {
+        font.use(glyph, frame);
+        if (font.isDistanceField() && glyph.getTexture() != lastDistanceFieldTexture) {
+            lastDistanceFieldTexture = glyph.getTexture();
+            distanceFieldTextures.add(lastDistanceFieldTexture);
+        }
+
+        pushQuad(getAvailableBatch(glyph.getTexture(), Z_INDEX), x, y, glyph.width * scale, glyph.height * scale,
+                color, glyph.getUV(), glyph.getTexture());
+    }
+
+    private void pushQuad(RenderBatch batch, float x, float y, float width, float height, Color color,
+                          Vector2f[] texCoords, Texture texture) {
+        if (projection == null) {
+            recordQuad(x, y, width, height, color, texCoords, texture);
+        }
+
+        int texID;
+        if (texture != null) {
+            texID = batch.addTexture(texture);
+        } else {
+            texID = 0;
+        }
+
+        batch.pushQuad(x, y, width, height, color, texCoords, texID);
+    }
+
+    private void recordQuad(float x, float y, float width, float height, Color color, Vector2f[] texCoords,
+                            Texture texture) {
+        int index = quads.size();
+        if (index == quadTextures.length) {
+            quadTextures = Arrays.copyOf(quadTextures, index * 2);
+        }
+        quadTextures[index] = texture;
+        // The corners are top right, bottom right, bottom left and top left, see Sprite
+        quads.add(x, y, width, height, texCoords[2].x, texCoords[2].y, texCoords[0].x, texCoords[0].y,
+                color.toRGBA8(), 0, 0);
+    }
+
+    /**
+     * Adds the root of a UI tree. Components that are added to the tree later, including components nested in a
+     * {@link Panel}, are drawn as well. A {@link UIComponent#isCacheable() cacheable} subtree is drawn from its cached
+     * texture.
+     */
+    public void add(UIComponent component) {
         if (component != null) {
-            components.add(component);
-            for (UIComponent child : component.getChildren()) {
-                if (child instanceof RenderableComponent) {
-                    add((RenderableComponent) child);
-                }
-            }
+            roots.add(component);
         }
     }
 
-    public void remove(RenderableComponent component) {
+    public void remove(UIComponent component) {
         if (component != null) {
-            components.remove(component);
+            roots.remove(component);
+            deleteCaches(component);
+        }
+    }
+
+    private void deleteCaches(UIComponent component) {
+        UICache cache = caches.remove(component);
+        if (cache != null) {
+            cache.dispose();
+        }
+        for (UIComponent child : component.getChildren()) {
+            deleteCaches(child);
+        }
+    }
+
+    /**
+     * Frees the batches and the textures of the cached subtrees.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        for (UICache cache : caches.values()) {
+            cache.dispose();
+        }
+        caches.clear();
+    }
+
+    public void add(Text text) {
+        if (text != null) {
+            texts.add(text);
+        }
+    }
+
+    public void remove(Text text) {
+        if (text != null) {
+            texts.remove(text);
         }
     }
 
     @Override
     public void prepare() {
     }
+
+    public static int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
 }
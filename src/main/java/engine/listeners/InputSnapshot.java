@@ -0,0 +1,127 @@
+package engine.listeners;
+
+/**
+ * The state of the mouse at the start of a frame.
+ * <p>
+ * The GLFW callbacks can fire at any time during {@code glfwPollEvents}, so everything that reacts to the mouse reads
+ * this snapshot instead of the live state: every component sees the same mouse in a frame, and the conversion to world
+ * coordinates happens once per frame instead of once per call.
+ * <p>
+ * Snapshots are taken by {@link MouseListener#captureSnapshot()} and read with {@link MouseListener#getSnapshot()}.
+ * The two snapshots are reused every other frame, so keep the values and not the snapshot itself.
+ */
+public final class InputSnapshot {
+    private float windowX, windowY;
+    private float screenX, screenY;
+    private float worldX, worldY;
+    private float dx, dy;
+    private float scrollX, scrollY;
+    private final boolean[] buttons;
+    private InputSnapshot previous;
+
+    InputSnapshot(int buttonCount) {
+        this.buttons = new boolean[buttonCount];
+    }
+
+    void set(float windowX, float windowY, float screenX, float screenY, float worldX, float worldY,
+             float scrollX, float scrollY, boolean[] buttons, InputSnapshot previous) {
+        this.windowX = windowX;
+        this.windowY = windowY;
+        this.screenX = screenX;
+        this.screenY = screenY;
+        this.worldX = worldX;
+        this.worldY = worldY;
+        this.dx = previous.windowX - windowX;
+        this.dy = previous.windowY - windowY;
+        this.scrollX = scrollX;
+        this.scrollY = scrollY;
+        System.arraycopy(buttons, 0, this.buttons, 0, this.buttons.length);
+        this.previous = previous;
+    }
+
+    /**
+     * @return The x position of the mouse cursor in the window.
+     */
+    public float windowX() {
+        return windowX;
+    }
+
+    /**
+     * @return The y position of the mouse cursor in the window.
+     */
+    public float windowY() {
+        return windowY;
+    }
+
+    /**
+     * @return The x position of the mouse cursor in the screen (game view port or window).
+     */
+    public float screenX() {
+        return screenX;
+    }
+
+    /**
+     * @return The y position of the mouse cursor in the screen (game view port or window).
+     */
+    public float screenY() {
+        return screenY;
+    }
+
+    /**
+     * @return The x position of the mouse cursor in the orthographic view (world coordinates).
+     */
+    public float worldX() {
+        return worldX;
+    }
+
+    /**
+     * @return The y position of the mouse cursor in the orthographic view (world coordinates).
+     */
+    public float worldY() {
+        return worldY;
+    }
+
+    /**
+     * @return The change in x position of the mouse cursor from the previous frame.
+     */
+    public float dx() {
+        return dx;
+    }
+
+    /**
+     * @return The change in y position of the mouse cursor from the previous frame.
+     */
+    public float dy() {
+        return dy;
+    }
+
+    /**
+     * @return The amount scrolled in the x direction during the previous frame.
+     */
+    public float scrollX() {
+        return scrollX;
+    }
+
+    /**
+     * @return The amount scrolled in the y direction during the previous frame.
+     */
+    public float scrollY() {
+        return scrollY;
+    }
+
+    /**
+     * @param button The mouse button to check (use GLFW constants).
+     * @return true if the mouse button is down in this frame.
+     */
+    public boolean isButtonDown(int button) {
+        return button < buttons.length && buttons[button];
+    }
+
+    /**
+     * @param button The mouse button to check (use GLFW constants).
+     * @return true if the mouse button went down in this frame, and was up in the previous frame.
+     */
+    public boolean isButtonPressed(int button) {
+        return isButtonDown(button) && !previous.isButtonDown(button);
+    }
+}
@@ -1,5 +1,6 @@
 package engine.listeners;
 
+import engine.graphics.FrameScheduler;
 import engine.graphics.Window;
 
 import static org.lwjgl.glfw.GLFW.*;
@@ -18,6 +19,7 @@ public class KeyListener {
     }
 
     public static void keyCallback(long window, int keycode, int scancode, int action, int mods) {
+        FrameScheduler.requestRedraw();
         if (keycode < keyPressed.length && keycode >= 0) {
             switch (action) {
                 case GLFW_PRESS -> keyPressed[keycode] = true;
@@ -1,9 +1,9 @@
 package engine.listeners;
 
 import engine.graphics.Camera;
+import engine.graphics.FrameScheduler;
 import engine.graphics.Window;
 import engine.util.Settings;
-import org.joml.Matrix4f;
 import org.joml.Vector2f;
 import org.joml.Vector4f;
 
@@ -39,6 +39,19 @@ public class MouseListener {
     private static Vector2f gameViewPortPos = new Vector2f();
     private static Vector2f gameViewPortSize = new Vector2f();
 
+    /**
+     * Double buffered snapshots, {@link #snapshot} is the current frame and {@link #previousSnapshot} the frame before.
+     */
+    private static InputSnapshot snapshot = new InputSnapshot(mouseButtonPressed.length);
+    private static InputSnapshot previousSnapshot = new InputSnapshot(mouseButtonPressed.length);
+    /** Reused for converting the mouse position to world coordinates */
+    private static final Vector4f worldPosition = new Vector4f();
+
+    static {
+        snapshot.set(0, 0, 0, 0, 0, 0, 0, 0, mouseButtonPressed, previousSnapshot);
+        previousSnapshot.set(0, 0, 0, 0, 0, 0, 0, 0, mouseButtonPressed, snapshot);
+    }
+
     public static void setupCallbacks() {
         long window = Window.getGlfwWindow();
 
@@ -49,6 +62,7 @@ public class MouseListener {
     }
 
     public static void mousePosCallback(long window, double newXPos, double newYPos) {
+        FrameScheduler.requestRedraw();
         lastX = xPos;
         lastY = yPos;
         xPos = newXPos;
@@ -56,6 +70,7 @@ public class MouseListener {
     }
 
     public static void mouseButtonCallback(long window, int button, int action, int mods) {
+        FrameScheduler.requestRedraw();
         if (action == GLFW_PRESS) {
             mouseButtonsDown++;
 
@@ -72,9 +87,10 @@ public class MouseListener {
     }
 
     public static void mouseScrollCallback(long window, double xOffset, double yOffset) {
-        scrollX = (float) xOffset;
-        scrollY = (float) yOffset;
-        clearMouseInput();
+        FrameScheduler.requestRedraw();
+        // Accumulate, a frame can receive several scroll events. The offsets are reset when the snapshot is taken.
+        scrollX += xOffset;
+        scrollY += yOffset;
     }
 
     /**
@@ -90,17 +106,49 @@ public class MouseListener {
     }
 
     /**
-     * This method should be called once per frame.
+     * Takes the snapshot of the mouse for this frame. This method should be called once per frame, right after the events
+     * are polled.
      *
-     * <p>Resets scroll values and sets {@link #lastX} and {@link #lastY} to the mouse position of the previous frame.</p>
-     */
-    public static void clearMouseInput() {
+     * <p>Converts the mouse position to screen and world coordinates, and resets the scroll values and sets
+     * {@link #lastX} and {@link #lastY} for the next frame.</p>
+     */
+    public static void captureSnapshot() {
+        InputSnapshot captured = previousSnapshot;
+        previousSnapshot = snapshot;
+        snapshot = captured;
+
+        float viewportX = (float) (xPos - gameViewPortPos.x) / gameViewPortSize.x;
+        float viewportY = (float) (yPos - gameViewPortPos.y) / gameViewPortSize.y;
+
+        float screenX = viewportX * Settings.MONITOR_WIDTH;
+        float screenY = Settings.MONITOR_HEIGHT - viewportY * Settings.MONITOR_HEIGHT;
+
+        // Normalized device coordinates to world coordinates, with the inverse view projection cached by the camera
+        float worldX = 0;
+        float worldY = 0;
+        Camera camera = Window.getScene() != null ? Window.getScene().camera() : null;
+        if (camera != null) {
+            worldPosition.set(viewportX * 2.0f - 1.0f, -(viewportY * 2.0f - 1.0f), 0, 1);
+            worldPosition.mul(camera.getInverseViewProjection());
+            worldX = worldPosition.x;
+            worldY = worldPosition.y;
+        }
+
+        snapshot.set((float) xPos, (float) yPos, screenX, screenY, worldX, worldY, (float) scrollX, (float) scrollY,
+                mouseButtonPressed, previousSnapshot);
+
         scrollX = 0;
         scrollY = 0;
         lastX = xPos;
         lastY = yPos;
     }
 
+    /**
+     * @return the state of the mouse at the start of the current frame.
+     */
+    public static InputSnapshot getSnapshot() {
+        return snapshot;
+    }
 
     /**
      * @return The x position of the mouse cursor on the monitor.
@@ -121,14 +169,14 @@ public class MouseListener {
      * @return The change in x position of the mouse cursor from the previous frame.
      */
     public static float getDx() {
-        return (float) (lastX - xPos);
+        return snapshot.dx();
     }
 
     /**
      * @return The change in y position of the mouse cursor from the previous frame.
      */
     public static float getDy() {
-        return (float) (lastY - yPos);
+        return snapshot.dy();
     }
 
 
@@ -136,70 +184,44 @@ public class MouseListener {
      * @return The scroll offset in the x direction.
      */
     public static float getScrollX() {
-        return (float) scrollX;
+        return snapshot.scrollX();
     }
 
     /**
      * @return The scroll offset in the y direction.
      */
     public static float getScrollY() {
-        return (float) scrollY;
+        return snapshot.scrollY();
     }
 
 
     /**
-     * @return The x position of the mouse cursor in the screen (game view port or window).
+     * @return The x position of the mouse cursor in the screen (game view port or window), at the start of the frame.
      */
     public static float getScreenX() {
-        float currentX = getX() - gameViewPortPos.x;
-        currentX = (currentX / (float) gameViewPortSize.x) * Settings.MONITOR_WIDTH;
-
-        return currentX;
+        return snapshot.screenX();
     }
 
     /**
-     * @return The y position of the mouse cursor in the screen (game view port or window).
+     * @return The y position of the mouse cursor in the screen (game view port or window), at the start of the frame.
      */
     public static float getScreenY() {
-        float currentY = getY() - gameViewPortPos.y;
-        currentY = Settings.MONITOR_HEIGHT - ((currentY / (float) gameViewPortSize.y) * Settings.MONITOR_HEIGHT);
-
-        return currentY;
+        return snapshot.screenY();
     }
 
 
     /**
-     * @return The x position of the mouse cursor in the orthographic view (world coordinates).
+     * @return The x position of the mouse cursor in the orthographic view (world coordinates), at the start of the frame.
      */
     public static float getOrthoX() {
-        float currentX = getX() - gameViewPortPos.x;
-        currentX = (currentX / (float) gameViewPortSize.x) * 2.0f - 1.0f;
-        Vector4f tmp = new Vector4f(currentX, 0, 0, 1);
-
-        Camera camera = Window.getScene().camera();
-        Matrix4f viewProjection = new Matrix4f();
-        camera.getInverseView().mul(camera.getInverseProjection(), viewProjection);
-        tmp.mul(viewProjection);
-        currentX = tmp.x;
-
-        return currentX;
+        return snapshot.worldX();
     }
 
     /**
-     * @return The y position of the mouse cursor in the orthographic view (world coordinates).
+     * @return The y position of the mouse cursor in the orthographic view (world coordinates), at the start of the frame.
      */
     public static float getOrthoY() {
-        float currentY = getY() - gameViewPortPos.y;
-        currentY = -((currentY / (float) gameViewPortSize.y) * 2.0f - 1.0f);
-        Vector4f tmp = new Vector4f(0, currentY, 0, 1);
-
-        Camera camera = Window.getScene().camera();
-        Matrix4f viewProjection = new Matrix4f();
-        camera.getInverseView().mul(camera.getInverseProjection(), viewProjection);
-        tmp.mul(viewProjection);
-        currentY = tmp.y;
-
-        return currentY;
+        return snapshot.worldY();
     }
 
 
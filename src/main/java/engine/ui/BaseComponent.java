@@ -1,7 +1,16 @@
 package engine.ui;
 
 import engine.ecs.Transform;
+import engine.graphics.FrameScheduler;
+import engine.ui.layout.Anchor;
+import engine.ui.layout.Layout;
+import engine.ui.layout.LayoutParams;
+import engine.ui.layout.Padding;
+import engine.util.JMath;
 import org.joml.Vector2f;
+import org.joml.Vector2fc;
+import org.joml.Vector4f;
+import org.joml.Vector4fc;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,9 +20,45 @@ public abstract class BaseComponent implements UIComponent {
     public Transform transform;
     protected UIComponent parent = null;
     protected List<UIComponent> children = new ArrayList<>();
+    protected List<Text> texts = new ArrayList<>();
 
     public EventConsumer eventConsumer = null;
 
+    /**
+     * Absolute position of the component, cached until the transform of this component or of one of its parents changes.
+     * When a component is dirty all of its children are dirty as well.
+     */
+    private final Vector2f absolutePosition = new Vector2f();
+    private boolean transformDirty = true;
+
+    /**
+     * Bounds of this component and its children, cached like {@link #absolutePosition}. When a component is dirty all of
+     * its parents are dirty as well.
+     */
+    private final Vector4f subtreeBounds = new Vector4f();
+    private boolean boundsDirty = true;
+
+    /** Whether the mouse is on this component or one of its children, set by the {@link UIInputDispatcher} */
+    protected boolean hovered = false;
+
+    /** Positions the children, when null they keep the positions they were given */
+    protected Layout layout = null;
+    protected Padding padding = Padding.NONE;
+    /** Whether the size of the component is the size its layout needs, instead of the scale of its transform */
+    protected boolean sizeToContent = false;
+    private final LayoutParams layoutParams = new LayoutParams();
+
+    /** Cached result of {@link #measure()} */
+    private final Vector2f measuredSize = new Vector2f();
+    private boolean measureDirty = true;
+    private boolean cacheable = false;
+    private boolean cacheDirty = false;
+
+    /** Whether the children have to be arranged again */
+    private boolean needsArrange = true;
+    /** Whether a descendant has to be laid out, so {@link #updateLayout()} has to walk down to it */
+    private boolean childNeedsLayout = false;
+
     @Override
     public void update() {
         for (UIComponent child : children) {
@@ -24,27 +69,97 @@ public abstract class BaseComponent implements UIComponent {
         }
     }
 
+    @Override
+    public void tick() {
+        for (UIComponent child : children) {
+            child.tick();
+        }
+        if (eventConsumer != null) {
+            eventConsumer.tick();
+        }
+    }
+
     @Override
     public void setEventConsumer(EventConsumer eventConsumer) {
         System.out.println("Setting event consumer for " + this.name + " to " + eventConsumer);
         this.eventConsumer = eventConsumer;
     }
 
+    @Override
+    public EventConsumer getEventConsumer() {
+        return eventConsumer;
+    }
+
+    @Override
+    public UIComponent getParent() {
+        return parent;
+    }
+
     @Override
     public void setParent(UIComponent parent) {
         this.parent = parent;
+        markTransformDirty();
     }
 
     @Override
     public void addChild(UIComponent child) {
         children.add(child);
         child.setParent(this);
+        markBoundsDirty();
+        childLayoutInvalidated(true);
+        invalidateCache();
     }
 
     @Override
     public void removeChild(UIComponent child) {
         children.remove(child);
         child.setParent(null);
+        markBoundsDirty();
+        childLayoutInvalidated(true);
+        invalidateCache();
+    }
+
+    // =================================================================================================================
+    // CACHING
+    // =================================================================================================================
+
+    @Override
+    public void setCacheable(boolean cacheable) {
+        this.cacheable = cacheable;
+        this.cacheDirty = cacheable;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    @Override
+    public boolean isCached() {
+        return cacheable || (parent != null && parent.isCached());
+    }
+
+    @Override
+    public void invalidateCache() {
+        // Every change to how a component looks passes through here, also when it isn't cached
+        FrameScheduler.requestRedraw();
+        // Cached subtrees can be nested, every texture up to the root contains this component
+        if (cacheable) {
+            cacheDirty = true;
+        }
+        if (parent != null) {
+            parent.invalidateCache();
+        }
+    }
+
+    @Override
+    public boolean isCacheDirty() {
+        return cacheDirty;
+    }
+
+    @Override
+    public void setCacheDirty(boolean dirty) {
+        this.cacheDirty = dirty;
     }
 
     public List<UIComponent> getChildren() {
@@ -52,14 +167,218 @@ public abstract class BaseComponent implements UIComponent {
     }
 
     @Override
-    public Vector2f getAbsolutePosition() {
-        if (this.parent == null) return new Vector2f(transform.getX(), transform.getY());
-        return new Vector2f(transform.getX(), transform.getY()).add(parent.getAbsolutePosition());
+    public List<Text> getTexts() {
+        return texts;
+    }
+
+    @Override
+    public void addText(Text text) {
+        texts.add(text);
+    }
+
+    @Override
+    public void removeText(Text text) {
+        texts.remove(text);
+    }
+
+    @Override
+    public Vector2fc getAbsolutePosition() {
+        if (transformDirty) {
+            absolutePosition.set(transform.getX(), transform.getY());
+            if (parent != null) {
+                absolutePosition.add(parent.getAbsolutePosition());
+            }
+            transformDirty = false;
+        }
+        return absolutePosition;
+    }
+
+    @Override
+    public void markTransformDirty() {
+        // A dirty component only has dirty children, so there is nothing left to propagate
+        if (transformDirty) return;
+
+        transformDirty = true;
+        boundsDirty = true;
+        for (UIComponent child : children) {
+            child.markTransformDirty();
+        }
+        if (parent != null) {
+            parent.markBoundsDirty();
+        }
+        invalidateCache();
+    }
+
+    @Override
+    public Vector4fc getSubtreeBounds() {
+        if (boundsDirty) {
+            Vector2fc position = getAbsolutePosition();
+            subtreeBounds.set(position.x(), position.y(),
+                    position.x() + transform.scale.x, position.y() + transform.scale.y);
+            for (UIComponent child : children) {
+                Vector4fc childBounds = child.getSubtreeBounds();
+                subtreeBounds.set(
+                        Math.min(subtreeBounds.x, childBounds.x()), Math.min(subtreeBounds.y, childBounds.y()),
+                        Math.max(subtreeBounds.z, childBounds.z()), Math.max(subtreeBounds.w, childBounds.w())
+                );
+            }
+            boundsDirty = false;
+        }
+        return subtreeBounds;
+    }
+
+    @Override
+    public void markBoundsDirty() {
+        // A dirty component only has dirty parents
+        if (boundsDirty) return;
+
+        boundsDirty = true;
+        if (parent != null) {
+            parent.markBoundsDirty();
+        }
+    }
+
+    @Override
+    public void setHovered(boolean hovered) {
+        this.hovered = hovered;
+    }
+
+    @Override
+    public boolean isHovered() {
+        return hovered;
+    }
+
+    @Override
+    public boolean containsPoint(float x, float y) {
+        Vector2fc position = getAbsolutePosition();
+        return JMath.inRect(x, y, position.x(), position.y(), transform.scale.x, transform.scale.y);
+    }
+
+    @Override
+    public void setPosition(float x, float y) {
+        // Layouts set the position of every child they arrange, most of which didn't move
+        if (transform.position.x == x && transform.position.y == y) return;
+
+        transform.position.set(x, y);
+        markTransformDirty();
+    }
+
+    @Override
+    public void setSize(float width, float height) {
+        if (transform.scale.x == width && transform.scale.y == height) return;
+
+        transform.scale.set(width, height);
+        markBoundsDirty();
+        invalidateLayout();
     }
 
     @Override
     public void setTransform(Transform transform) {
         this.transform = transform;
+        markTransformDirty();
+        invalidateLayout();
+    }
+
+    // =================================================================================================================
+    // LAYOUT
+    // =================================================================================================================
+
+    /**
+     * @param layout        positions the children, null to keep the positions they were given
+     * @param sizeToContent whether the component is resized to the size its children need
+     */
+    public void setLayout(Layout layout, boolean sizeToContent) {
+        this.layout = layout;
+        this.sizeToContent = sizeToContent;
+        invalidateLayout();
+    }
+
+    public void setPadding(Padding padding) {
+        this.padding = padding;
+        invalidateLayout();
+    }
+
+    @Override
+    public LayoutParams getLayoutParams() {
+        return layoutParams;
+    }
+
+    @Override
+    public void setAnchor(Anchor anchor, float offsetX, float offsetY) {
+        layoutParams.anchor = anchor;
+        layoutParams.offset.set(offsetX, offsetY);
+        invalidateLayout();
+    }
+
+    @Override
+    public Vector2fc measure() {
+        if (measureDirty) {
+            if (layout != null && sizeToContent) {
+                layout.measure(this, measuredSize);
+                measuredSize.add(padding.horizontal(), padding.vertical());
+            } else {
+                measuredSize.set(transform.scale);
+            }
+            measureDirty = false;
+        }
+        return measuredSize;
+    }
+
+    @Override
+    public void invalidateLayout() {
+        FrameScheduler.requestRedraw();
+        measureDirty = true;
+        needsArrange = true;
+        if (parent != null) {
+            parent.childLayoutInvalidated(true);
+        }
+    }
+
+    @Override
+    public void childLayoutInvalidated(boolean sizeChanged) {
+        boolean scheduled = childNeedsLayout;
+        childNeedsLayout = true;
+
+        if (sizeChanged && layout != null) {
+            if (sizeToContent) {
+                // The size of this component depends on the child, so the parent has to lay it out again as well
+                invalidateLayout();
+                return;
+            }
+            needsArrange = true;
+        }
+
+        // The parents only have to walk down to this component, its size didn't change
+        if (!scheduled && parent != null) {
+            parent.childLayoutInvalidated(false);
+        }
+    }
+
+    @Override
+    public void updateLayout() {
+        if (!needsArrange && !childNeedsLayout) return;
+
+        if (needsArrange) {
+            if (layout != null) {
+                if (sizeToContent) {
+                    Vector2fc size = measure();
+                    if (transform.scale.x != size.x() || transform.scale.y != size.y()) {
+                        transform.scale.set(size);
+                        markBoundsDirty();
+                    }
+                }
+                layout.arrange(this, padding.left, padding.bottom,
+                        transform.scale.x - padding.horizontal(), transform.scale.y - padding.vertical());
+            }
+            needsArrange = false;
+        }
+
+        if (childNeedsLayout) {
+            childNeedsLayout = false;
+            for (UIComponent child : children) {
+                child.updateLayout();
+            }
+        }
     }
 
     @Override
@@ -3,12 +3,11 @@ package engine.ui;
 
 import engine.ecs.GameObject;
 import engine.ecs.components.SpriteRenderer;
+import engine.graphics.FrameScheduler;
 import engine.graphics.Window;
 import engine.listeners.MouseListener;
 import engine.util.Color;
 import engine.util.Engine;
-import engine.util.JMath;
-import org.joml.Vector2f;
 import org.lwjgl.glfw.GLFW;
 
 public abstract class EventConsumer {
@@ -43,9 +42,28 @@ public abstract class EventConsumer {
 
     private boolean hasCooldownAnimation = false;
 
+    /**
+     * Handles the mouse, called every frame so no click is missed between ticks.
+     */
     public void update() {
-        boolean isMouseOnThis = isMouseOnThis();
+        // The consumers of UI components get their mouse events from the UIInputDispatcher
+        if (uiComponent == null) {
+            handleMouse(isMouseOnThis(), MouseListener.getSnapshot().isButtonDown(GLFW.GLFW_MOUSE_BUTTON_LEFT));
+        }
+    }
+
+    /**
+     * Advances the click delay, called once per tick of the game logic.
+     */
+    public void tick() {
+        updateClickDelayTimer();
+    }
 
+    /**
+     * Sends enter, leave, hover and click based on the mouse in this frame and whether it was on this element in the
+     * previous one.
+     */
+    void handleMouse(boolean isMouseOnThis, boolean buttonDown) {
         if (isMouseOnThis && !wasMouseOnThis) {
             // If the mouse is on this element and wasn't before, enter
             onEnter();
@@ -54,26 +72,29 @@ public abstract class EventConsumer {
             onLeave();
         }
         if (isMouseOnThis) {
-            if (MouseListener.mouseButtonDown(GLFW.GLFW_MOUSE_BUTTON_LEFT)) {
+            if (buttonDown) {
                 onClick();
             } else {
                 onHover();
             }
         }
-        updateClickDelayTimer();
-        wasMouseOnThis = isMouseOnThis();
+        wasMouseOnThis = isMouseOnThis;
     }
 
 
     /**
-     * Updates the click delay timer based on the elapsed time since the last frame.
+     * Updates the click delay timer by the length of a tick.
      * <p>
      * If the object cannot currently be clicked, this method increments the timer
      * and marks the associated {@link SpriteRenderer} as dirty (to update the visual cooldown state).
      */
     private void updateClickDelayTimer() {
         if (!canClick()) {
-            clickDelayTimer += Engine.deltaTime();
+            clickDelayTimer += Engine.tickDelta();
+            if (hasCooldownAnimation) {
+                // The cooldown is drawn, every tick of it changes the frame
+                FrameScheduler.requestRedraw();
+            }
         }
     }
 
@@ -124,18 +145,17 @@ public abstract class EventConsumer {
     }
 
     /**
-     * Checks if the mouse is currently positioned over the UI element.
+     * Checks if the mouse is currently positioned over the game object. The mouse never is when it is on the UI, which is
+     * drawn on top.
      *
-     * @return true if the mouse is on the element, false otherwise
+     * @return true if the mouse is on the game object, false otherwise
      */
     private boolean isMouseOnThis() {
         if (gameObject != null) {
+            if (Window.getScene().uiInputDispatcher().isMouseOverUI()) return false;
             int hoveredUid = Window.readPixel((int) MouseListener.getScreenX(), (int) MouseListener.getScreenY());
             return hoveredUid == gameObject.getUid();
         }
-        if (uiComponent != null) {
-            return JMath.inRect(new Vector2f(MouseListener.getOrthoX(), MouseListener.getOrthoY()), uiComponent.getAbsolutePosition().x(), uiComponent.getAbsolutePosition().y(), uiComponent.getTransform().scale.x, uiComponent.getTransform().scale.y);
-        }
         return false;
     }
 }
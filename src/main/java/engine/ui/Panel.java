@@ -0,0 +1,22 @@
+package engine.ui;
+
+import engine.ecs.Transform;
+import engine.ui.layout.Layout;
+
+/**
+ * An invisible component that groups other components, so they can be laid out together. It is as large as its children
+ * need and is never hit by the mouse itself, only its children are.
+ */
+public class Panel extends BaseComponent {
+
+    public Panel(String name, Layout layout) {
+        this.name = name;
+        this.transform = new Transform();
+        setLayout(layout, true);
+    }
+
+    @Override
+    public boolean containsPoint(float x, float y) {
+        return false;
+    }
+}
@@ -1,10 +1,7 @@
 package engine.ui;
 
 import engine.ecs.Sprite;
-import engine.listeners.MouseListener;
 import engine.util.Color;
-import engine.util.JMath;
-import org.joml.Vector2f;
 
 import static engine.util.Color.WHITE;
 
@@ -15,8 +12,6 @@ public class RenderableComponent extends BaseComponent {
     public Color defaultColor = this.color;
     public Color hoverColor = new Color(0.8f, 0.8f, 0.8f, 1.0f);
 
-    protected boolean hovering = false;
-
     public RenderableComponent(String name) {
         new RenderableComponent(name, WHITE, new Sprite());
     }
@@ -42,8 +37,7 @@ public class RenderableComponent extends BaseComponent {
     @Override
     public void update() {
         super.update();
-        this.hovering = JMath.inRect(new Vector2f(MouseListener.getOrthoX(), MouseListener.getOrthoY()), getAbsolutePosition().x(), getAbsolutePosition().y(), transform.scale.x, transform.scale.y);
-        if (this.hovering) {
+        if (isHovered()) {
             setColor(hoverColor);
         } else {
             setColor(defaultColor);
@@ -53,6 +47,7 @@ public class RenderableComponent extends BaseComponent {
     public void setColor(Color color) {
         if (!this.color.equals(color)) {
             this.color = color;
+            invalidateCache();
         }
     }
 
@@ -1,74 +1,104 @@
 package engine.ui;
 
-import engine.ecs.GameObject;
 import engine.ecs.Transform;
+import engine.graphics.FrameScheduler;
 import engine.graphics.Window;
-import engine.graphics.renderer.TextRenderer;
+import engine.graphics.renderer.UIRenderer;
 import engine.ui.fonts.Font;
 import engine.ui.fonts.Glyph;
-import engine.ui.fonts.GlyphRenderer;
 import engine.util.Color;
 import engine.util.Layer;
 import org.joml.Vector2f;
 
-import java.util.ArrayList;
-
+/**
+ * A piece of text that is rendered by the {@link UIRenderer}, on top of the component it is attached to.
+ * <p>
+ * The text keeps a reusable glyph run: for every char it stores the {@link Glyph} to draw and its offset relative to the
+ * position of the text. Changing the text only lays out the chars from the first one that differs, and setting the same
+ * text again does no work at all.
+ * <p>
+ * Offsets are stored in pixels of the font atlas and multiplied by the {@link #getScale() scale} when they are read, so
+ * changing the size of the text doesn't lay it out again. Only distance field fonts stay sharp when they are scaled.
+ */
 public class Text {
-    private Transform lastTransform = new Transform();
+    private static final int INITIAL_CAPACITY = 16;
+
     private Transform transform = new Transform();
     private int zIndex;
 
     private UIComponent parent;
 
-    private ArrayList<GlyphRenderer> glyphRenderers;
     private Color color = Color.WHITE;
 
     private Font font;
-    private CharSequence text;
+    /** Size of the text relative to the size the font atlas is baked at */
+    private float scale;
+
+    /** The chars of the current text, only the first {@link #length} are valid. */
+    private char[] chars;
+    private int length;
 
+    /** The glyph to draw for each char, null for chars that can't be drawn (line breaks, carriage returns, ...). */
+    private Glyph[] glyphs;
+    /** The x offset of each char relative to the position of the text, this is the pen position before the char. */
+    private float[] offsetsX;
+    /** The line each char is on. */
+    private int[] lines;
+
+    /** Pen position after the last char, used when chars are appended to the text. */
+    private float endOffsetX;
+    private int endLine;
 
     public Text(String string, Font font, Color color, float x, float y) {
-        this.text = string;
         this.font = font;
         this.color = color;
+        this.scale = font.getSize() / font.getAtlasSize();
 
         this.transform.setPosition(new Vector2f(x, y));
-        this.lastTransform.setPosition(new Vector2f(x, y));
         this.zIndex = Layer.TOP;
 
-        glyphRenderers = new ArrayList<>();
+        int capacity = Math.max(INITIAL_CAPACITY, string.length());
+        chars = new char[capacity];
+        glyphs = new Glyph[capacity];
+        offsetsX = new float[capacity];
+        lines = new int[capacity];
 
-        generateGlyphs();
+        change(string);
         Window.getScene().addTextToScene(this);
     }
 
-    public void update() {
-        if (!lastTransform.equals(this.transform)) {
-            Vector2f movementDelta = new Vector2f(transform.getX() - lastTransform.getX(), transform.getY() - lastTransform.getY());
+    /**
+     * Changes the text. Only the chars starting at the first char that differs from the current text are laid out again.
+     *
+     * @param text the new text, the chars are copied so the sequence can be reused by the caller
+     */
+    public void change(CharSequence text) {
+        int newLength = text.length();
 
-            for (GlyphRenderer gr : glyphRenderers) {
-                gr.updatePosition(movementDelta);
-            }
-            for (GlyphRenderer gr : glyphRenderers) {
-                gr.update();
-            }
+        int firstDifference = 0;
+        int commonLength = Math.min(length, newLength);
+        while (firstDifference < commonLength && chars[firstDifference] == text.charAt(firstDifference)) {
+            firstDifference++;
+        }
+        if (firstDifference == newLength && newLength == length) {
+            // Same text, nothing to do
+            return;
         }
-        lastTransform.setX(transform.getX());
-        lastTransform.setY(transform.getY());
-    }
 
-    public void change(String string) {
-        glyphRenderers.clear();
-        this.text = string + " ";
-        generateGlyphs();
+        ensureCapacity(newLength);
+        for (int i = firstDifference; i < newLength; i++) {
+            chars[i] = text.charAt(i);
+        }
+        int oldLength = length;
+        length = newLength;
+        layout(firstDifference, oldLength);
+        invalidateParentCache();
     }
 
     public String getText() {
-        return (String) this.text;
+        return new String(chars, 0, length);
     }
 
-    private char ch;
-
     /**
      * Calculates the width of a single line of text based on the Glyph size for
      * each character contained in the CharSequence (a lower level representation of
@@ -81,80 +111,153 @@ public class Text {
         float lineWidth = 0;
 
         for (int i = 0; i < line.length(); i++) {
-            ch = line.charAt(i);
+            char ch = line.charAt(i);
 
             if (ch == '\r')
                 continue;
 
-            drawX += font.getGlyphs().get(ch).width;
+            Glyph glyph = font.getGlyph(ch);
+            if (glyph == null)
+                continue;
+
+            drawX += glyph.width;
             lineWidth = drawX;
         }
 
-        return lineWidth;
+        return lineWidth * scale;
     }
 
     /**
-     * Creates the glyphs (essentially sprites) for each character in the string at
-     * the appropriate position relative to the anchor point and text alignment.
+     * Lays out the glyphs of the chars starting at {@code from}. The chars before {@code from} are unchanged, so the
+     * pen position is restored from the stored offsets instead of walking the whole text again.
+     *
+     * @param from      the index of the first char that changed
+     * @param oldLength the length of the text before it changed
      */
-    int textHeight;
-    float maxTextWidth;
-
-    private void generateGlyphs() {
-        float[] lineLengths = new float[1];
-        // TODO centered support
-
-        textHeight = font.getHeight(text);
-        int lineIncreases = 0;
+    private void layout(int from, int oldLength) {
+        float drawX;
+        int line;
+        if (from < oldLength) {
+            drawX = offsetsX[from];
+            line = lines[from];
+        } else {
+            drawX = endOffsetX;
+            line = endLine;
+        }
 
-        // Get the anchor point of the Text object
-        Transform t = transform.copy();
-        float drawX = t.getX();
-        float drawY = t.getY();
+        int maxLength = UIRenderer.getMaxBatchSize();
+        for (int i = from; i < length; i++) {
+            offsetsX[i] = drawX;
+            lines[i] = line;
 
-        for (int i = 0; i < text.length(); i++) {
             // String sizes are automatically chopped off at a certain length due to
             // rendering speed and memory limitations.
-            if (i >= TextRenderer.getMaxBatchSize() - 3) {
+            char ch;
+            if (i >= maxLength - 3) {
                 // Replace the last three characters of the string with "..."
-                if (i < TextRenderer.getMaxBatchSize()) {
+                if (i < maxLength) {
                     ch = '.';
-                } else
-                    break;
-            } else
-                ch = text.charAt(i);
+                } else {
+                    glyphs[i] = null;
+                    continue;
+                }
+            } else {
+                ch = chars[i];
+            }
 
             if (ch == '\n') {
                 // Line break, set x and y to draw at the next line and continue since there is
                 // nothing to draw.
-                lineIncreases++;
-
-                drawX = t.getX();
-                drawY = t.getY() + (font.getFontHeight() * lineIncreases);
-
+                glyphs[i] = null;
+                line++;
+                drawX = 0;
                 continue;
             }
 
-            // Carriage return - cannot be drawn.
-            if (ch == '\r')
-                continue;
+            // Carriage returns and chars the font doesn't contain cannot be drawn.
+            Glyph glyph = ch == '\r' ? null : font.getGlyph(ch);
+            glyphs[i] = glyph;
+            if (glyph != null) {
+                drawX += glyph.width;
+            }
+        }
+        endOffsetX = drawX;
+        endLine = line;
+    }
 
-            // Add the Glyph that corresponds to the current character to the arrayList of
-            // glyphRenders.
-            Glyph glyph = font.getGlyphs().get(ch);
+    private void ensureCapacity(int capacity) {
+        if (capacity <= chars.length) return;
+
+        int newCapacity = Math.max(capacity, chars.length * 2);
+        char[] newChars = new char[newCapacity];
+        Glyph[] newGlyphs = new Glyph[newCapacity];
+        float[] newOffsetsX = new float[newCapacity];
+        int[] newLines = new int[newCapacity];
+        System.arraycopy(chars, 0, newChars, 0, length);
+        System.arraycopy(glyphs, 0, newGlyphs, 0, length);
+        System.arraycopy(offsetsX, 0, newOffsetsX, 0, length);
+        System.arraycopy(lines, 0, newLines, 0, length);
+        chars = newChars;
+        glyphs = newGlyphs;
+        offsetsX = newOffsetsX;
+        lines = newLines;
+    }
 
-            glyphRenderers.add(new GlyphRenderer(new Transform(new Vector2f(drawX, drawY), new Vector2f(glyph.width, glyph.height)),
-                    glyph, this, ch, this.color));
+    /**
+     * @return the number of chars in the glyph run, chars without a glyph are included.
+     */
+    public int length() {
+        return length;
+    }
 
-            drawX += glyph.width;
-        }
-        if (textHeight > font.getFontHeight()) {
-            drawY += textHeight - font.getFontHeight();
-        }
+    /**
+     * @return the glyph for the char at the given index, or null if the char is not drawn.
+     */
+    public Glyph getGlyph(int index) {
+        return glyphs[index];
     }
 
-    public ArrayList<GlyphRenderer> getGlyphRenderers() {
-        return glyphRenderers;
+    /**
+     * @return the x offset of the glyph at the given index relative to the position of the text.
+     */
+    public float getGlyphOffsetX(int index) {
+        return offsetsX[index] * scale;
+    }
+
+    /**
+     * @return the y offset of the glyph at the given index relative to the position of the text.
+     */
+    public float getGlyphOffsetY(int index) {
+        return lines[index] * font.getFontHeight() * scale;
+    }
+
+    /**
+     * @return the factor the glyphs of the font atlas are multiplied by when they are drawn.
+     */
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Changes the size of the text. The glyph run is kept, only the scale it is drawn at changes.
+     *
+     * @param size the size of the text, in the same unit as the size of the font
+     */
+    public void setFontSize(float size) {
+        this.scale = size / font.getAtlasSize();
+        invalidateParentCache();
+    }
+
+    public Font getFont() {
+        return font;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public Transform getTransform() {
+        return transform;
     }
 
     public int zIndex() {
@@ -163,10 +266,33 @@ public class Text {
 
     public void setPosition(Vector2f position) {
         this.transform.setPosition(position);
+        invalidateParentCache();
     }
 
+    /**
+     * Attaches the text to a component, its position becomes relative to the component and it is drawn with it.
+     */
     public void setParent(UIComponent component) {
+        if (parent != null) {
+            parent.removeText(this);
+            parent.invalidateCache();
+        }
         this.parent = component;
+        if (parent != null) {
+            parent.addText(this);
+            parent.invalidateCache();
+        }
+    }
+
+    /**
+     * The text is drawn into the cached texture of its parent, if it has one, so that has to be rendered again. A text
+     * without a parent is drawn on its own, it only needs a new frame.
+     */
+    private void invalidateParentCache() {
+        FrameScheduler.requestRedraw();
+        if (parent != null) {
+            parent.invalidateCache();
+        }
     }
 
     public UIComponent getParent() {
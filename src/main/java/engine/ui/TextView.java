@@ -0,0 +1,180 @@
+package engine.ui;
+
+import engine.ecs.Transform;
+import engine.graphics.renderer.UIRenderer;
+import engine.listeners.MouseListener;
+import engine.ui.fonts.Font;
+import engine.util.Color;
+import engine.util.TextBuffer;
+import org.joml.Vector2f;
+
+/**
+ * A scrollable view of many lines of text, like a log or a feed of notifications.
+ * <p>
+ * The lines are kept in a ring buffer: when it is full, appending a line overwrites the oldest one and reuses its
+ * buffer. Unlike {@link Text}, the view doesn't keep a glyph run; the {@link UIRenderer} lays out only the lines that
+ * are visible every frame, so the cost of a frame depends on the size of the view and not on the amount of lines.
+ * <p>
+ * The newest line is drawn at the bottom of the view. While the view is scrolled to the bottom it follows new lines,
+ * when it is scrolled back it stays on the lines that are shown.
+ */
+public class TextView extends BaseComponent {
+    /** Lines scrolled per step of the scroll wheel */
+    private static final int SCROLL_LINES = 3;
+
+    private final Font font;
+    private Color color;
+    private float scale;
+
+    /** Ring buffer of lines, {@link #first} is the index of the oldest line */
+    private final TextBuffer[] lines;
+    private int first;
+    private int lineCount;
+
+    /** Amount of lines between the newest line and the bottom line of the view */
+    private int scrollOffset;
+
+    /**
+     * @param capacity the amount of lines that are kept, older lines are dropped
+     * @param width    width of the view, chars that don't fit are cut off
+     * @param height   height of the view, determines the amount of visible lines
+     */
+    public TextView(String name, Font font, Color color, int capacity, float x, float y, float width, float height) {
+        this.name = name;
+        this.font = font;
+        this.color = color;
+        this.scale = font.getSize() / font.getAtlasSize();
+        this.lines = new TextBuffer[capacity];
+        this.transform = new Transform(new Vector2f(x, y), new Vector2f(width, height));
+    }
+
+    /**
+     * Appends text to the view. Every line break in the text starts a new line.
+     */
+    public void append(CharSequence text) {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                appendLine(text, start, i);
+                start = i + 1;
+            }
+        }
+        appendLine(text, start, text.length());
+        invalidateCache();
+    }
+
+    private void appendLine(CharSequence text, int start, int end) {
+        TextBuffer line;
+        if (lineCount < lines.length) {
+            int index = (first + lineCount) % lines.length;
+            if (lines[index] == null) {
+                lines[index] = new TextBuffer();
+            }
+            line = lines[index];
+            lineCount++;
+        } else {
+            // Full, overwrite the oldest line
+            line = lines[first];
+            first = (first + 1) % lines.length;
+        }
+
+        line.clear();
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '\r') {
+                line.append(c);
+            }
+        }
+
+        // Keep showing the same lines when the view is scrolled back
+        if (scrollOffset > 0) {
+            setScrollOffset(scrollOffset + 1);
+        }
+    }
+
+    public void clear() {
+        first = 0;
+        lineCount = 0;
+        scrollOffset = 0;
+        invalidateCache();
+    }
+
+    @Override
+    public void update() {
+        super.update();
+
+        float scroll = MouseListener.getScrollY();
+        if (scroll != 0 && isHovered()) {
+            // Scrolling up goes back to older lines
+            setScrollOffset(scrollOffset + Math.round(scroll * SCROLL_LINES));
+        }
+    }
+
+    /**
+     * @param index the index of the line, 0 is the oldest line that is kept
+     */
+    public CharSequence getLine(int index) {
+        return lines[(first + index) % lines.length];
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the amount of lines that fit in the view.
+     */
+    public int getVisibleLineCount() {
+        return Math.max(0, (int) (transform.scale.y / getLineHeight()));
+    }
+
+    public float getLineHeight() {
+        return font.getFontHeight() * scale;
+    }
+
+    public int getScrollOffset() {
+        return scrollOffset;
+    }
+
+    /**
+     * Scrolls the view.
+     *
+     * @param offset the amount of lines between the newest line and the bottom of the view, 0 follows new lines
+     */
+    public void setScrollOffset(int offset) {
+        int maxOffset = Math.max(0, lineCount - getVisibleLineCount());
+        offset = Math.max(0, Math.min(offset, maxOffset));
+        if (offset != scrollOffset) {
+            this.scrollOffset = offset;
+            invalidateCache();
+        }
+    }
+
+    public Font getFont() {
+        return font;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public void setColor(Color color) {
+        this.color = color;
+        invalidateCache();
+    }
+
+    /**
+     * @return the factor the glyphs of the font atlas are multiplied by when they are drawn.
+     */
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * @param size the size of the text, in the same unit as the size of the font
+     */
+    public void setFontSize(float size) {
+        this.scale = size / font.getAtlasSize();
+        invalidateCache();
+    }
+}
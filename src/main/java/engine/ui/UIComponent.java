@@ -1,18 +1,144 @@
 package engine.ui;
 
 import engine.ecs.Transform;
-import org.joml.Vector2f;
+import engine.ui.layout.Anchor;
+import engine.ui.layout.Layout;
+import engine.ui.layout.LayoutParams;
+import org.joml.Vector2fc;
+import org.joml.Vector4fc;
 
 import java.util.List;
 
 public interface UIComponent {
     void update();
 
+    /**
+     * Advances the timers of the component and its children by one tick of the game logic.
+     */
+    void tick();
+
     void setTransform(Transform transform);
 
     Transform getTransform();
 
-    Vector2f getAbsolutePosition();
+    /**
+     * @return the position of the component relative to the root of its hierarchy. The vector is cached by the component
+     * and updated in place, copy it to keep the value.
+     */
+    Vector2fc getAbsolutePosition();
+
+    /**
+     * Invalidates the cached absolute position of this component and all of its children. Has to be called after the
+     * position or scale of the transform is changed directly instead of through {@link #setTransform(Transform)}.
+     */
+    void markTransformDirty();
+
+    /**
+     * @return whether the point, in the same coordinates as {@link #getAbsolutePosition()}, lies on the component.
+     */
+    boolean containsPoint(float x, float y);
+
+    /**
+     * @return the rectangle that encloses this component and all of its children, as (minX, minY, maxX, maxY) in the same
+     * coordinates as {@link #getAbsolutePosition()}. Children can lie outside of their parent, so this can be larger than
+     * the component itself. The vector is cached and updated in place.
+     */
+    Vector4fc getSubtreeBounds();
+
+    /**
+     * Invalidates the cached subtree bounds of this component and all of its parents.
+     */
+    void markBoundsDirty();
+
+    /**
+     * Called by the {@link UIInputDispatcher} when the mouse enters or leaves this component or one of its children,
+     * while no other component is drawn on top of it.
+     */
+    void setHovered(boolean hovered);
+
+    boolean isHovered();
+
+    EventConsumer getEventConsumer();
+
+    /**
+     * Moves the component relative to its parent.
+     */
+    void setPosition(float x, float y);
+
+    /**
+     * Resizes the component and lays it out again.
+     */
+    void setSize(float width, float height);
+
+    /**
+     * @return the size the component wants to have in the layout of its parent. Cached until the layout is invalidated.
+     */
+    Vector2fc measure();
+
+    /**
+     * Has to be called when something changes the size of the component or the placement of its children, the
+     * component and the parts of its parents that depend on it are laid out again by the next {@link #updateLayout()}.
+     */
+    void invalidateLayout();
+
+    /**
+     * Called by a child whose layout was invalidated.
+     *
+     * @param sizeChanged whether the size of the child may have changed, otherwise one of its descendants only has to be
+     *                    laid out
+     */
+    void childLayoutInvalidated(boolean sizeChanged);
+
+    /**
+     * Lays out the parts of this subtree that were invalidated. Returns immediately when nothing changed.
+     */
+    void updateLayout();
+
+    /**
+     * @return how the {@link Layout} of the parent places this component.
+     */
+    LayoutParams getLayoutParams();
+
+    /**
+     * Attaches the component to a point of its parent, used when the parent has an {@link engine.ui.layout.AnchorLayout}.
+     */
+    void setAnchor(Anchor anchor, float offsetX, float offsetY);
+
+    /**
+     * Makes the component and its children draw from a texture, which is only rendered again after something in the
+     * subtree is {@link #invalidateCache() invalidated}. Meant for panels that rarely change, and has to be set before
+     * the component is added to the scene.
+     */
+    void setCacheable(boolean cacheable);
+
+    boolean isCacheable();
+
+    /**
+     * @return whether the component is drawn as part of the cached texture of itself or one of its parents.
+     */
+    boolean isCached();
+
+    /**
+     * Has to be called when the look of the component changes, so the cached textures that contain it are rendered
+     * again. Changes to the position, color, children and texts of components are detected, changes to a sprite are not.
+     */
+    void invalidateCache();
+
+    boolean isCacheDirty();
+
+    void setCacheDirty(boolean dirty);
+
+    UIComponent getParent();
+
+    /**
+     * @return the texts that are attached to this component with {@link Text#setParent(UIComponent)}. They are drawn
+     * right after the component, before its children.
+     */
+    List<Text> getTexts();
+
+    void addText(Text text);
+
+    void removeText(Text text);
 
     void setParent(UIComponent parent);
 
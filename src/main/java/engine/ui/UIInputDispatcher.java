@@ -0,0 +1,105 @@
+package engine.ui;
+
+import engine.listeners.InputSnapshot;
+import org.joml.Vector4fc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.lwjgl.glfw.GLFW.GLFW_MOUSE_BUTTON_LEFT;
+
+/**
+ * Finds the UI component under the mouse once per frame and sends the mouse events to it.
+ * <p>
+ * The tree is walked from the top down, in the reverse order it is drawn in: later roots and later children are drawn
+ * on top, and children on top of their parent. Subtrees whose {@link UIComponent#getSubtreeBounds() bounds} don't contain
+ * the mouse are skipped as a whole, so a frame only visits the branches under the mouse instead of every component.
+ * <p>
+ * Only the topmost component under the mouse is hit. It and its parents are marked as {@link UIComponent#isHovered()
+ * hovered}, and the events go to the nearest {@link EventConsumer} on that path, so an icon on a button doesn't take the
+ * clicks of the button.
+ */
+public class UIInputDispatcher {
+    /** The hovered components, from the hit component up to its root. Swapped with the path of the previous frame. */
+    private List<UIComponent> hoveredPath = new ArrayList<>();
+    private List<UIComponent> previousHoveredPath = new ArrayList<>();
+
+    private EventConsumer hoveredConsumer;
+    private EventConsumer previousHoveredConsumer;
+
+    private boolean buttonDown;
+
+    /**
+     * Finds the topmost component under the mouse and updates the hovered state of the components. The events are only
+     * sent by {@link #dispatchEvents()}, so this can be done before the game objects are updated.
+     *
+     * @param roots the components that were added to the scene, in the order they are drawn
+     */
+    public void hitTest(List<UIComponent> roots, InputSnapshot input) {
+        List<UIComponent> path = previousHoveredPath;
+        previousHoveredPath = hoveredPath;
+        hoveredPath = path;
+        hoveredPath.clear();
+
+        float x = input.worldX();
+        float y = input.worldY();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            if (findTopmost(roots.get(i), x, y)) break;
+        }
+
+        for (UIComponent component : previousHoveredPath) {
+            component.setHovered(false);
+        }
+        previousHoveredConsumer = hoveredConsumer;
+        hoveredConsumer = null;
+        for (UIComponent component : hoveredPath) {
+            component.setHovered(true);
+            if (hoveredConsumer == null) {
+                hoveredConsumer = component.getEventConsumer();
+            }
+        }
+        buttonDown = input.isButtonDown(GLFW_MOUSE_BUTTON_LEFT);
+    }
+
+    /**
+     * Adds the topmost component under the point in the subtree, followed by its parents up to the root of the subtree,
+     * to {@link #hoveredPath}.
+     *
+     * @return whether a component was hit
+     */
+    private boolean findTopmost(UIComponent component, float x, float y) {
+        Vector4fc bounds = component.getSubtreeBounds();
+        if (x < bounds.x() || x > bounds.z() || y < bounds.y() || y > bounds.w()) return false;
+
+        List<UIComponent> children = component.getChildren();
+        boolean hit = false;
+        for (int i = children.size() - 1; i >= 0 && !hit; i--) {
+            hit = findTopmost(children.get(i), x, y);
+        }
+        if (hit || component.containsPoint(x, y)) {
+            hoveredPath.add(component);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sends enter, leave, hover and click to the event consumers of the components that were hit in this frame and in
+     * the previous one.
+     */
+    public void dispatchEvents() {
+        if (previousHoveredConsumer != null && previousHoveredConsumer != hoveredConsumer) {
+            previousHoveredConsumer.handleMouse(false, buttonDown);
+        }
+        if (hoveredConsumer != null) {
+            hoveredConsumer.handleMouse(true, buttonDown);
+        }
+    }
+
+    /**
+     * @return whether the mouse is on a UI component, in which case the game objects below it don't get the mouse.
+     */
+    public boolean isMouseOverUI() {
+        return !hoveredPath.isEmpty();
+    }
+}
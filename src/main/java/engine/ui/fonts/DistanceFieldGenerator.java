@@ -0,0 +1,186 @@
+package engine.ui.fonts;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * Bakes signed distance fields of glyphs.
+ * <p>
+ * Instead of the coverage of a pixel, every texel stores the distance to the nearest edge of the glyph: 0.5 is on the
+ * outline, higher values are inside and lower values are outside. The text shader turns that distance back into a
+ * sharp edge at whatever scale the text is drawn, so one atlas serves every font size.
+ * <p>
+ * Each glyph is drawn {@link #SUPERSAMPLING} times larger than the atlas, the exact euclidean distance transform is
+ * calculated on that image and then sampled down.
+ */
+final class DistanceFieldGenerator {
+    /** Distance in atlas pixels at which the field is clamped, glyph cells are padded by this much on every side */
+    static final int SPREAD = 6;
+    private static final int SUPERSAMPLING = 4;
+
+    /** Stands in for infinity in the distance transform, real infinity would turn the parabola intersections into NaN */
+    private static final float FAR = 1e20f;
+
+    private final FontMetrics metrics;
+    private final FontMetrics largeMetrics;
+    private final java.awt.Font largeFont;
+
+    /** Scratch buffers, grown when a wider glyph comes along */
+    private BufferedImage scratch;
+    private Graphics2D g;
+    private float[] outside = new float[0];
+    private float[] inside = new float[0];
+    private int[] cell = new int[0];
+    private DistanceTransform transform;
+    private final char[] drawnChar = new char[1];
+
+    /**
+     * @param font    the font, derived at the size the atlas is baked at
+     * @param metrics the metrics of the font
+     */
+    DistanceFieldGenerator(java.awt.Font font, FontMetrics metrics) {
+        this.metrics = metrics;
+        this.largeFont = font.deriveFont(font.getSize2D() * SUPERSAMPLING);
+        this.largeMetrics = GlyphRasterizer.getMetrics(largeFont);
+    }
+
+    GlyphBitmap generate(char c) {
+        int charWidth = metrics.charWidth(c);
+        int charHeight = metrics.getHeight();
+        int cellWidth = charWidth + 2 * SPREAD;
+        int cellHeight = charHeight + 2 * SPREAD;
+        int width = cellWidth * SUPERSAMPLING;
+        int height = cellHeight * SUPERSAMPLING;
+        ensureScratch(width, height);
+        int stride = scratch.getWidth();
+
+        g.setColor(java.awt.Color.BLACK);
+        g.fillRect(0, 0, width, height);
+        g.setColor(java.awt.Color.WHITE);
+        drawnChar[0] = c;
+        g.drawChars(drawnChar, 0, 1, SPREAD * SUPERSAMPLING, SPREAD * SUPERSAMPLING + largeMetrics.getAscent());
+
+        // Squared distance to the nearest pixel inside the glyph, and to the nearest pixel outside of it
+        byte[] coverage = ((DataBufferByte) scratch.getRaster().getDataBuffer()).getData();
+        for (int py = 0; py < height; py++) {
+            for (int px = 0; px < width; px++) {
+                boolean isInside = (coverage[py * stride + px] & 0xFF) > 127;
+                outside[py * width + px] = isInside ? 0 : FAR;
+                inside[py * width + px] = isInside ? FAR : 0;
+            }
+        }
+        transform.apply(outside, width, height);
+        transform.apply(inside, width, height);
+
+        // Sample the center of every block of large pixels
+        float maxDistance = SPREAD * SUPERSAMPLING;
+        for (int cy = 0; cy < cellHeight; cy++) {
+            int sy = cy * SUPERSAMPLING + SUPERSAMPLING / 2;
+            for (int cx = 0; cx < cellWidth; cx++) {
+                int sample = sy * width + cx * SUPERSAMPLING + SUPERSAMPLING / 2;
+                float distance = (float) (Math.sqrt(outside[sample]) - Math.sqrt(inside[sample]));
+                float value = Math.min(1, Math.max(0, 0.5f - distance / (2 * maxDistance)));
+
+                // White pixels with the distance in the alpha channel, like the coverage of a bitmap glyph
+                int alpha = Math.round(value * 255);
+                cell[cy * cellWidth + cx] = (alpha << 24) | 0xFFFFFF;
+            }
+        }
+
+        return new GlyphBitmap(c, charWidth, charHeight, SPREAD,
+                GlyphRasterizer.toPixelBuffer(cell, cellWidth, cellWidth, cellHeight));
+    }
+
+    private void ensureScratch(int width, int height) {
+        if (scratch != null && scratch.getWidth() >= width && scratch.getHeight() >= height) return;
+
+        if (g != null) g.dispose();
+        int scratchWidth = Math.max(width, scratch != null ? scratch.getWidth() : 0);
+        int scratchHeight = Math.max(height, scratch != null ? scratch.getHeight() : 0);
+        scratch = new BufferedImage(scratchWidth, scratchHeight, BufferedImage.TYPE_BYTE_GRAY);
+        g = scratch.createGraphics();
+        // Aliased drawing gives a clean inside/outside mask, the supersampling takes care of the precision
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+        g.setFont(largeFont);
+
+        outside = new float[scratchWidth * scratchHeight];
+        inside = new float[scratchWidth * scratchHeight];
+        cell = new int[(scratchWidth / SUPERSAMPLING) * (scratchHeight / SUPERSAMPLING)];
+        transform = new DistanceTransform(Math.max(scratchWidth, scratchHeight));
+    }
+
+    /**
+     * Exact squared euclidean distance transform by Felzenszwalb and Huttenlocher: a 1D transform over every column
+     * followed by one over every row, each finding the lower envelope of the parabolas rooted at the pixels.
+     */
+    private static final class DistanceTransform {
+        private final float[] f;
+        private final float[] d;
+        private final int[] v;
+        private final float[] z;
+
+        DistanceTransform(int maxLength) {
+            f = new float[maxLength];
+            d = new float[maxLength];
+            v = new int[maxLength];
+            z = new float[maxLength + 1];
+        }
+
+        /**
+         * Transforms the grid in place. Pixels start at 0 for the feature and {@link #FAR} for everything else, and
+         * end as the squared distance to the nearest feature pixel.
+         */
+        void apply(float[] grid, int width, int height) {
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    f[y] = grid[y * width + x];
+                }
+                transform(height);
+                for (int y = 0; y < height; y++) {
+                    grid[y * width + x] = d[y];
+                }
+            }
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(grid, y * width, f, 0, width);
+                transform(width);
+                System.arraycopy(d, 0, grid, y * width, width);
+            }
+        }
+
+        private void transform(int n) {
+            int k = 0;
+            v[0] = 0;
+            z[0] = -Float.MAX_VALUE;
+            z[1] = Float.MAX_VALUE;
+            for (int q = 1; q < n; q++) {
+                float s = intersection(q, v[k]);
+                while (s <= z[k]) {
+                    k--;
+                    s = intersection(q, v[k]);
+                }
+                k++;
+                v[k] = q;
+                z[k] = s;
+                z[k + 1] = Float.MAX_VALUE;
+            }
+
+            k = 0;
+            for (int q = 0; q < n; q++) {
+                while (z[k + 1] < q) {
+                    k++;
+                }
+                float offset = q - v[k];
+                d[q] = offset * offset + f[v[k]];
+            }
+        }
+
+        /**
+         * @return the x at which the parabolas rooted at q and p intersect
+         */
+        private float intersection(int q, int p) {
+            return ((f[q] + (float) q * q) - (f[p] + (float) p * p)) / (2f * q - 2f * p);
+        }
+    }
+}
@@ -1,173 +1,109 @@
 package engine.ui.fonts;
 
-import engine.graphics.renderer.Texture;
-import org.lwjgl.BufferUtils;
-
-import java.awt.*;
-import java.awt.geom.AffineTransform;
-import java.awt.image.AffineTransformOp;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
-
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A font whose glyphs are rasterized the first time they are requested.
+ * <p>
+ * Glyphs are only put on an {@link GlyphAtlasPage atlas page} when they are drawn. Pages are added as needed, up to
+ * {@link #MAX_PAGES}; after that the page that was drawn from least recently is cleared and reused. The bitmaps of all
+ * glyphs that were rasterized stay on the CPU and are written to the {@link FontAtlasCache} by {@link #saveCache()}, so
+ * the next start doesn't have to rasterize them again.
+ */
 public class Font {
-    private final Map<Character, Glyph> glyphs;
+    /**
+     * Size at which distance field atlases are baked. Text can be drawn larger than this without losing its sharp edges,
+     * but thin details smaller than a pixel of the atlas are lost.
+     */
+    private static final float DISTANCE_FIELD_SIZE = 48;
 
-    private final Texture texture;
+    /** Width and height in pixels of an atlas page */
+    private static final int PAGE_SIZE = 512;
+    /** Memory budget of a font: the amount of pages it may keep before the least recently used one is reused */
+    private static final int MAX_PAGES = 4;
 
-    private int fontHeight;
+    /** Glyphs are looked up in blocks of 256 chars, only the blocks that contain requested chars are allocated */
+    private static final int BLOCK_BITS = 8;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
 
-    public Font(String path, float size) {
-        java.awt.Font f = null;
-        try {
-            java.awt.Font rawFont = java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT, new File(path));
-            f = rawFont.deriveFont(size);
-        } catch (Exception e) {
-            assert false : "Could not load font file: " + path + ", using default monospaced font";
-            e.printStackTrace();
-        }
+    /**
+     * Two level lookup table of the glyphs in the Basic Multilingual Plane, indexed by the high and low byte of the char.
+     */
+    private final Glyph[][] glyphs = new Glyph[(Character.MAX_VALUE + 1) >> BLOCK_BITS][];
+    /** Chars the font has no glyph for, so they are not looked up in the AWT font again */
+    private final BitSet missingGlyphs = new BitSet();
+    private int glyphCount;
+    /** Whether glyphs were rasterized that are not in the cache yet */
+    private boolean cacheDirty;
+
+    private final List<GlyphAtlasPage> pages = new ArrayList<>();
+    /** The last frame a glyph was drawn in, pages used in this frame can't be evicted */
+    private long currentFrame;
+    private boolean overBudgetReported;
+
+    private final String path;
+    private final Path cachePath;
+    /** Only created when a glyph has to be rasterized, loading the AWT font is slow */
+    private GlyphRasterizer rasterizer;
+
+    private final int fontHeight;
+
+    /** The size text is drawn at by default */
+    private final float size;
+    /** The size the atlas is baked at, glyph metrics are in pixels of this size */
+    private final float atlasSize;
+    private final boolean distanceField;
 
-        glyphs = new HashMap<>();
-        texture = createFontTexture(f);
+    /**
+     * Creates a bitmap font, which only looks sharp when drawn at its own size.
+     */
+    public Font(String path, float size) {
+        this(path, size, false);
     }
 
-
-    private Texture createFontTexture(java.awt.Font font) {
-        // Loop through the characters to get charWidth and charHeight
-        int imageWidth = 0;
-        int imageHeight = 0;
-
-        // Start at char #32, because ASCII 0 to 31 are just control codes
-        for (int i = 32; i < 256; i++) {
-            if (i == 127) {
-                // ASCII 127 is the DEL control code, so we can skip it
-                continue;
-            }
-            char c = (char) i;
-            BufferedImage ch = createCharImage(font, c);
-            if (ch == null) {
-                // If char image is null that font does not contain the char
-                continue;
-            }
-
-            imageWidth += ch.getWidth();
-            imageHeight = Math.max(imageHeight, ch.getHeight());
-        }
-
-        fontHeight = imageHeight;
-
-        // Image for the texture
-        BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = image.createGraphics();
-
-        int x = 0;
-
-        // Create image for the standard chars, omitting ASCII 0 to 31 because they are just control codes.
-        for (int i = 32; i < 256; i++) {
-
-            // ASCII 127 is the DEL control code, so we can skip it
-            if (i == 127) continue;
-
-            char c = (char) i;
-
-            BufferedImage charImage = createCharImage(font, c);
-
-            // If char image is null that font does not contain the char
-            if (charImage == null) continue;
-
-            int charWidth = charImage.getWidth();
-            int charHeight = charImage.getHeight();
-
-            // Create glyph and draw char on image
-            Glyph ch = new Glyph(charWidth, charHeight, x, image.getHeight() - charHeight);
-            g.drawImage(charImage, x, 0, null);
-            x += ch.width;
-            glyphs.put(c, ch);
-        }
-
-        Texture finalTexture = bufferedImageToTexture(image);
-
-        // Finally, calculate the UV coordinates on the generated texture and store it in each Glyph
-        for (int i = 32; i < 256; i++) {
-            if (glyphs.get((char) i) != null) {
-                glyphs.get((char) i).calculateUVs(finalTexture);
+    /**
+     * @param size          the size text is drawn at by default
+     * @param distanceField whether the atlas stores a signed distance field, so the font can be drawn at any size
+     */
+    public Font(String path, float size, boolean distanceField) {
+        this.path = path;
+        this.size = size;
+        this.atlasSize = distanceField ? DISTANCE_FIELD_SIZE : size;
+        this.distanceField = distanceField;
+
+        // Glyphs that were rasterized in earlier runs are read back from the cache, they are uploaded when first drawn
+        cachePath = FontAtlasCache.getCachePath(path, atlasSize, distanceField);
+        FontAtlas atlas = cachePath != null ? FontAtlasCache.read(cachePath) : null;
+        if (atlas != null) {
+            fontHeight = atlas.fontHeight;
+            for (GlyphBitmap bitmap : atlas.glyphs) {
+                setGlyph(bitmap.c, new Glyph(bitmap));
             }
+        } else {
+            fontHeight = getRasterizer().getFontHeight();
         }
+    }
 
-        return finalTexture;
-    }
-
-    private Texture bufferedImageToTexture(BufferedImage image) {
-        // OpenGL has its origin (0,0) in the bottom left corner, while BufferedImage has it in the top left corner
-        // So we need to flip the image vertically
-        AffineTransform transform = AffineTransform.getScaleInstance(1f, -1f);
-        transform.translate(0, -image.getHeight());
-        AffineTransformOp operation = new AffineTransformOp(transform, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-        image = operation.filter(image, null);
-
-        // Get charWidth and charHeight of image
-        int width = image.getWidth();
-        int height = image.getHeight();
-
-        // Get pixel data of image
-        int[] pixels = new int[width * height];
-        image.getRGB(0, 0, width, height, pixels, 0, width);
-
-        // Load the pixel data into a ByteBuffer
-        ByteBuffer buffer = BufferUtils.createByteBuffer(width * height * 4);
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                // & 0xFF is used to separate the final 2 bytes of the int
-                // Pixel as RGBA: 0xAARRGGBB
-                int pixel = pixels[i * width + j];
-                // Red component 0xAARRGGBB >> 16 = 0x0000AARR
-                buffer.put((byte) ((pixel >> 16) & 0xFF));
-                // Green component 0xAARRGGBB >> 8 = 0x00AARRGG
-                buffer.put((byte) ((pixel >> 8) & 0xFF));
-                // Blue component 0xAARRGGBB >> 0 = 0xAARRGGBB
-                buffer.put((byte) (pixel & 0xFF));
-                // Alpha component 0xAARRGGBB >> 24 = 0x000000AA
-                buffer.put((byte) ((pixel >> 24) & 0xFF));
-            }
+    private GlyphRasterizer getRasterizer() {
+        if (rasterizer == null) {
+            rasterizer = new GlyphRasterizer(loadFont(path, atlasSize), distanceField);
         }
-
-        // The buffer limit is set to the buffer position and the position is set to 0
-        // This way the buffer is ready to be read from by OpenGL (from position 0 to limit)
-        buffer.flip();
-
-        return new Texture().createTexture(width, height, buffer);
+        return rasterizer;
     }
 
-    private BufferedImage createCharImage(java.awt.Font font, char c) {
-        // Creating temporary image to extract character size
-        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = image.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setFont(font);
-        FontMetrics metrics = g.getFontMetrics();
-        g.dispose();
-
-        // Get char charWidth and charHeight
-        int charWidth = metrics.charWidth(c);
-        int charHeight = metrics.getHeight();
-
-        // Check if charWidth is 0
-        if (charWidth == 0) {
-            return null;
+    private static java.awt.Font loadFont(String path, float size) {
+        try {
+            java.awt.Font rawFont = java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT, new File(path));
+            return rawFont.deriveFont(size);
+        } catch (Exception e) {
+            assert false : "Could not load font file: " + path + ", using default monospaced font";
+            e.printStackTrace();
+            return new java.awt.Font(java.awt.Font.MONOSPACED, java.awt.Font.PLAIN, Math.round(size));
         }
-
-        // Create image for holding the char
-        image = new BufferedImage(charWidth, charHeight, BufferedImage.TYPE_INT_ARGB);
-        g = image.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setFont(font);
-        g.setPaint(java.awt.Color.WHITE);
-        g.drawString(String.valueOf(c), 0, metrics.getAscent());
-        g.dispose();
-        return image;
     }
 
     /**
@@ -190,22 +126,147 @@ public class Font {
 
             if (c == '\r') continue;
 
-            Glyph g = glyphs.get(c);
+            Glyph g = getGlyph(c);
+            if (g == null) continue;
             lineHeight = Math.max(lineHeight, g.height);
         }
         height += lineHeight;
         return height;
     }
 
+    /**
+     * @return the height of a line in pixels of the atlas, multiply by the scale of the text to get the drawn height.
+     */
     public int getFontHeight() {
         return fontHeight;
     }
 
-    public Map<Character, Glyph> getGlyphs() {
-        return glyphs;
+    public float getSize() {
+        return size;
+    }
+
+    public float getAtlasSize() {
+        return atlasSize;
+    }
+
+    public boolean isDistanceField() {
+        return distanceField;
+    }
+
+    /**
+     * Looks up the glyph of a char, rasterizing it the first time it is requested. The glyph is not on the atlas yet,
+     * call {@link #use(Glyph, long)} before drawing it.
+     *
+     * @return the glyph, or null if the font has no glyph for the char.
+     */
+    public Glyph getGlyph(char c) {
+        Glyph[] block = glyphs[c >> BLOCK_BITS];
+        Glyph glyph = block != null ? block[c & (BLOCK_SIZE - 1)] : null;
+        if (glyph != null || missingGlyphs.get(c)) {
+            return glyph;
+        }
+
+        GlyphRasterizer rasterizer = getRasterizer();
+        if (!rasterizer.canDisplay(c)) {
+            missingGlyphs.set(c);
+            return null;
+        }
+        glyph = new Glyph(rasterizer.rasterize(c));
+        setGlyph(c, glyph);
+        cacheDirty = true;
+        return glyph;
+    }
+
+    private void setGlyph(char c, Glyph glyph) {
+        Glyph[] block = glyphs[c >> BLOCK_BITS];
+        if (block == null) {
+            block = new Glyph[BLOCK_SIZE];
+            glyphs[c >> BLOCK_BITS] = block;
+        }
+        if (block[c & (BLOCK_SIZE - 1)] == null) {
+            glyphCount++;
+        }
+        block[c & (BLOCK_SIZE - 1)] = glyph;
+    }
+
+    /**
+     * Makes sure the glyph is on an atlas page and marks that page as used in this frame, so it isn't evicted before the
+     * frame is drawn. Has to be called before the texture and UVs of the glyph are read.
+     *
+     * @param frame a number that goes up every frame
+     */
+    public void use(Glyph glyph, long frame) {
+        currentFrame = frame;
+        if (glyph.page == null) {
+            place(glyph);
+        }
+        glyph.page.lastUsedFrame = frame;
+    }
+
+    private void place(Glyph glyph) {
+        for (GlyphAtlasPage page : pages) {
+            if (page.add(glyph)) return;
+        }
+
+        GlyphAtlasPage page = pages.size() < MAX_PAGES ? null : getLeastRecentlyUsedPage();
+        if (page != null) {
+            page.clear();
+        } else {
+            if (pages.size() >= MAX_PAGES && !overBudgetReported) {
+                // Every page is drawn from in this frame, going over budget is better than drawing the wrong glyphs
+                System.err.println("Font '" + path + "' needs more than " + MAX_PAGES + " atlas pages in a single frame");
+                overBudgetReported = true;
+            }
+            page = new GlyphAtlasPage(PAGE_SIZE);
+            pages.add(page);
+        }
+
+        if (!page.add(glyph)) {
+            assert false : "Glyph '" + glyph.getChar() + "' does not fit on an empty atlas page";
+        }
     }
 
-    public Texture getTexture() {
-        return texture;
+    /**
+     * @return the page that was drawn from least recently, or null if every page is drawn from in the current frame
+     */
+    private GlyphAtlasPage getLeastRecentlyUsedPage() {
+        GlyphAtlasPage leastRecentlyUsed = null;
+        for (GlyphAtlasPage page : pages) {
+            if (page.lastUsedFrame >= currentFrame) continue;
+            if (leastRecentlyUsed == null || page.lastUsedFrame < leastRecentlyUsed.lastUsedFrame) {
+                leastRecentlyUsed = page;
+            }
+        }
+        return leastRecentlyUsed;
+    }
+
+    /**
+     * Frees the atlas pages on the GPU. The glyphs keep their bitmaps, they are put on a new page when they are drawn.
+     */
+    public void dispose() {
+        for (GlyphAtlasPage page : pages) {
+            page.release();
+        }
+        pages.clear();
+    }
+
+    /**
+     * Writes the glyphs that were rasterized to the cache, if there are any that are not in it yet.
+     */
+    public void saveCache() {
+        if (!cacheDirty || cachePath == null) return;
+
+        GlyphBitmap[] bitmaps = new GlyphBitmap[glyphCount];
+        int index = 0;
+        for (Glyph[] block : glyphs) {
+            if (block == null) continue;
+            for (Glyph glyph : block) {
+                if (glyph != null) {
+                    bitmaps[index++] = glyph.bitmap;
+                }
+            }
+        }
+        FontAtlasCache.write(cachePath, new FontAtlas(fontHeight, bitmaps));
+        cacheDirty = false;
     }
 }
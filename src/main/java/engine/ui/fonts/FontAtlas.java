@@ -0,0 +1,14 @@
+package engine.ui.fonts;
+
+/**
+ * The glyphs of a font that have been baked so far, as stored in the {@link FontAtlasCache}.
+ */
+final class FontAtlas {
+    final int fontHeight;
+    final GlyphBitmap[] glyphs;
+
+    FontAtlas(int fontHeight, GlyphBitmap[] glyphs) {
+        this.fontHeight = fontHeight;
+        this.glyphs = glyphs;
+    }
+}
@@ -0,0 +1,162 @@
+package engine.ui.fonts;
+
+import org.lwjgl.BufferUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stores the baked glyphs of a font on disk so they don't have to be rasterized again on the next start.
+ * <p>
+ * A cache file is keyed by the hash of the font file, the font size and the kind of atlas, so changing any of them
+ * produces a new file.
+ * The file is read back with a single read into one direct buffer, the pixels of each glyph are a slice of that buffer
+ * that is handed to OpenGL without copying when the glyph is first drawn. The file is not memory-mapped, a mapping
+ * would stay open until it is garbage collected and keep the cache from being rewritten on Windows.
+ *
+ * <pre>
+ * int    magic, version
+ * int    fontHeight, glyphCount
+ * glyphCount * (int char, int width, int height, int padding)
+ * glyphCount * byte[] (width + 2 * padding) * (height + 2 * padding) * 4 RGBA pixels
+ * </pre>
+ */
+final class FontAtlasCache {
+    private static final String CACHE_DIRECTORY = "cache/fonts";
+    private static final int MAGIC = 0x49414641; // "IAFA", Idle Ark Font Atlas
+    private static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    private static final int GLYPH_BYTES = 4 * Integer.BYTES;
+
+    private FontAtlasCache() {
+    }
+
+    /**
+     * Gets the path of the cache file for a font.
+     *
+     * @param size          the size the atlas is baked at
+     * @param distanceField whether the atlas is a signed distance field or a bitmap
+     *
+     * @return the path of the cache file, or null if the font file can't be read
+     */
+    static Path getCachePath(String fontPath, float size, boolean distanceField) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(Files.readAllBytes(Paths.get(fontPath)));
+            String name = Paths.get(fontPath).getFileName().toString();
+            String kind = distanceField ? "_sdf" : "";
+            return Paths.get(CACHE_DIRECTORY, name + "_" + size + kind + "_" + HexFormat.of().formatHex(hash, 0, 8) + ".atlas");
+        } catch (IOException | NoSuchAlgorithmException e) {
+            System.err.println("Could not hash font file '" + fontPath + "', the atlas will not be cached: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads an atlas from the cache.
+     *
+     * @return the atlas, or null if there is no valid cache file
+     */
+    static FontAtlas read(Path path) {
+        if (!Files.isRegularFile(path)) return null;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The header is written big endian, BufferUtils creates buffers in the native order
+            ByteBuffer buffer = BufferUtils.createByteBuffer((int) channel.size()).order(ByteOrder.BIG_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) return null;
+            }
+            buffer.flip();
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+
+            int fontHeight = buffer.getInt();
+            int glyphCount = buffer.getInt();
+            if (glyphCount < 0 || buffer.remaining() < (long) glyphCount * GLYPH_BYTES) {
+                return null;
+            }
+
+            int[] records = new int[glyphCount * 4];
+            long pixelBytes = 0;
+            for (int i = 0; i < glyphCount; i++) {
+                for (int j = 0; j < 4; j++) {
+                    records[i * 4 + j] = buffer.getInt();
+                }
+                int width = records[i * 4 + 1];
+                int height = records[i * 4 + 2];
+                int padding = records[i * 4 + 3];
+                if (width < 0 || height < 0 || padding < 0) return null;
+                pixelBytes += (long) (width + 2 * padding) * (height + 2 * padding) * 4;
+            }
+            if (buffer.remaining() != pixelBytes) {
+                return null;
+            }
+
+            // The remainder of the file is the pixel data of the glyphs, one after the other
+            GlyphBitmap[] glyphs = new GlyphBitmap[glyphCount];
+            for (int i = 0; i < glyphCount; i++) {
+                char c = (char) records[i * 4];
+                int width = records[i * 4 + 1];
+                int height = records[i * 4 + 2];
+                int padding = records[i * 4 + 3];
+                int bytes = (width + 2 * padding) * (height + 2 * padding) * 4;
+                ByteBuffer pixels = buffer.slice(buffer.position(), bytes);
+                buffer.position(buffer.position() + bytes);
+                glyphs[i] = new GlyphBitmap(c, width, height, padding, pixels);
+            }
+            return new FontAtlas(fontHeight, glyphs);
+        } catch (IOException e) {
+            System.err.println("Could not read font atlas cache '" + path + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the baked glyphs to the cache. Failing to write the cache is not fatal, the glyphs are just baked again
+     * next time.
+     */
+    static void write(Path path, FontAtlas atlas) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + atlas.glyphs.length * GLYPH_BYTES);
+        header.putInt(MAGIC).putInt(VERSION);
+        header.putInt(atlas.fontHeight).putInt(atlas.glyphs.length);
+        for (GlyphBitmap glyph : atlas.glyphs) {
+            header.putInt(glyph.c).putInt(glyph.width).putInt(glyph.height).putInt(glyph.padding);
+        }
+        header.flip();
+
+        try {
+            Files.createDirectories(path.getParent());
+            // Write to a temporary file first, so a crash halfway doesn't leave a broken cache behind
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                for (GlyphBitmap glyph : atlas.glyphs) {
+                    // Write a view so the position of the pixel buffer is left untouched for the texture upload
+                    ByteBuffer pixels = glyph.pixels.duplicate();
+                    pixels.position(0).limit(glyph.cellWidth() * glyph.cellHeight() * 4);
+                    while (pixels.hasRemaining()) {
+                        channel.write(pixels);
+                    }
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Could not write font atlas cache '" + path + "': " + e.getMessage());
+        }
+    }
+}
@@ -3,8 +3,33 @@ package engine.ui.fonts;
 public class FontLoader {
     private static Font openSans;
 
+    /**
+     * Loads all fonts. Fonts are only loaded once per process, their textures stay valid for as long as the OpenGL
+     * context exists, so calling this again does nothing.
+     */
     public static void loadFonts() {
-        openSans = new Font("src/assets/fonts/OpenSans-Regular.ttf", 15);
+        if (openSans != null) return;
+
+        // A distance field font, so text of every size shares one atlas
+        openSans = new Font("src/assets/fonts/OpenSans-Regular.ttf", 15, true);
+    }
+
+    /**
+     * Writes the glyphs that were rasterized while the game ran to the font cache, so they are ready on the next start.
+     */
+    public static void saveFonts() {
+        if (openSans != null) {
+            openSans.saveCache();
+        }
+    }
+
+    /**
+     * Frees the atlas pages of all fonts, called when the game closes.
+     */
+    public static void disposeFonts() {
+        if (openSans != null) {
+            openSans.dispose();
+        }
     }
 
     public static Font getOpenSans() {
@@ -4,19 +4,37 @@ import engine.ecs.Sprite;
 import engine.graphics.renderer.Texture;
 import org.joml.Vector2f;
 
+/**
+ * A char of a {@link Font}. The glyph is only put on an atlas page when it is drawn, and can be taken off again when its
+ * page is evicted, so the texture and UVs are only valid after {@link Font#use(Glyph, long)}.
+ */
 public class Glyph extends Sprite {
     public final int width;
     public final int height;
-    private final int x;
-    private final int y;
-    private Vector2f[] uvCoordinates;
-
-    public Glyph(int width, int height, int x, int y) {
-        this.setTexture(new Texture());
-        this.width = width;
-        this.height = height;
+    final GlyphBitmap bitmap;
+
+    /** The page the glyph is on, or null if it isn't on the atlas */
+    GlyphAtlasPage page;
+    private int x;
+    private int y;
+    private final Vector2f[] uvCoordinates = {new Vector2f(), new Vector2f(), new Vector2f(), new Vector2f()};
+
+    Glyph(GlyphBitmap bitmap) {
+        this.bitmap = bitmap;
+        this.width = bitmap.width;
+        this.height = bitmap.height;
+    }
+
+    void place(GlyphAtlasPage page, int x, int y) {
+        this.page = page;
         this.x = x;
         this.y = y;
+        calculateUVs(page.getTexture());
+    }
+
+    void evict() {
+        this.page = null;
+        this.texture = null;
     }
 
     public void calculateUVs(Texture texture) {
@@ -27,17 +45,34 @@ public class Glyph extends Sprite {
         float leftX = x / (float) texture.getWidth();
         float bottomY = y / (float) texture.getHeight();
 
-        uvCoordinates = new Vector2f[]{
-                new Vector2f(rightX, topY),
-                new Vector2f(rightX, bottomY),
-                new Vector2f(leftX, bottomY),
-                new Vector2f(leftX, topY)
-        };
+        uvCoordinates[0].set(rightX, topY);
+        uvCoordinates[1].set(rightX, bottomY);
+        uvCoordinates[2].set(leftX, bottomY);
+        uvCoordinates[3].set(leftX, topY);
     }
 
     public Vector2f[] getUV() {
         return uvCoordinates;
     }
 
+    /**
+     * @return the x position in pixels of the glyph on its atlas page.
+     */
+    public int getX() {
+        return x;
+    }
 
+    /**
+     * @return the y position in pixels of the glyph on its atlas page.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return the char this glyph draws.
+     */
+    public char getChar() {
+        return bitmap.c;
+    }
 }
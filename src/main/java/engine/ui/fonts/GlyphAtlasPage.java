@@ -0,0 +1,104 @@
+package engine.ui.fonts;
+
+import engine.graphics.renderer.Texture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A texture that glyphs are packed on when they are first drawn.
+ * <p>
+ * Glyphs are packed on shelves: rows as high as the first glyph that opened them, filled from left to right. All glyphs
+ * of a font are the height of a line, so the shelves of a page are filled without gaps.
+ */
+final class GlyphAtlasPage {
+    private final Texture texture;
+    private final int size;
+
+    private final List<Shelf> shelves = new ArrayList<>();
+    /** Bottom of the next shelf that is opened */
+    private int nextShelfY;
+
+    private final List<Glyph> glyphs = new ArrayList<>();
+
+    /** The last frame a glyph of this page was drawn in */
+    long lastUsedFrame;
+
+    GlyphAtlasPage(int size) {
+        this.size = size;
+        this.texture = new Texture().createTexture(size, size, null);
+    }
+
+    /**
+     * Uploads the bitmap of the glyph to this page.
+     *
+     * @return false if the page has no room left for the glyph
+     */
+    boolean add(Glyph glyph) {
+        GlyphBitmap bitmap = glyph.bitmap;
+        int width = bitmap.cellWidth();
+        int height = bitmap.cellHeight();
+
+        Shelf shelf = null;
+        for (Shelf s : shelves) {
+            if (s.height >= height && s.x + width <= size) {
+                shelf = s;
+                break;
+            }
+        }
+        if (shelf == null) {
+            if (nextShelfY + height > size || width > size) return false;
+            shelf = new Shelf(nextShelfY, height);
+            shelves.add(shelf);
+            nextShelfY += height;
+        }
+
+        int x = shelf.x;
+        shelf.x += width;
+        texture.update(x, shelf.y, width, height, bitmap.pixels);
+
+        glyph.place(this, x + bitmap.padding, shelf.y + bitmap.padding);
+        glyphs.add(glyph);
+        return true;
+    }
+
+    /**
+     * Takes all glyphs off this page so it can be filled again. The glyphs keep their bitmap and are put back on a page
+     * the next time they are drawn.
+     */
+    void clear() {
+        for (Glyph glyph : glyphs) {
+            glyph.evict();
+        }
+        glyphs.clear();
+        shelves.clear();
+        nextShelfY = 0;
+    }
+
+    /**
+     * Takes all glyphs off this page and frees its texture.
+     */
+    void release() {
+        clear();
+        texture.release();
+    }
+
+    Texture getTexture() {
+        return texture;
+    }
+
+    int getGlyphCount() {
+        return glyphs.size();
+    }
+
+    private static final class Shelf {
+        final int y;
+        final int height;
+        int x;
+
+        Shelf(int y, int height) {
+            this.y = y;
+            this.height = height;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package engine.ui.fonts;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The rasterized pixels of a single glyph, kept on the CPU so the glyph can be put back on an atlas page after its page
+ * has been evicted, and written to the {@link FontAtlasCache}.
+ */
+final class GlyphBitmap {
+    final char c;
+    /** Advance of the char and height of the line, in atlas pixels. This is the part of the bitmap that is drawn. */
+    final int width;
+    final int height;
+    /**
+     * Border around the drawn part. It keeps neighbouring glyphs from bleeding into each other when the atlas is
+     * sampled, and holds the distance field outside of the glyph.
+     */
+    final int padding;
+    /** RGBA pixels of the whole cell, the bottom row first like OpenGL expects */
+    final ByteBuffer pixels;
+
+    GlyphBitmap(char c, int width, int height, int padding, ByteBuffer pixels) {
+        this.c = c;
+        this.width = width;
+        this.height = height;
+        this.padding = padding;
+        this.pixels = pixels;
+    }
+
+    int cellWidth() {
+        return width + 2 * padding;
+    }
+
+    int cellHeight() {
+        return height + 2 * padding;
+    }
+}
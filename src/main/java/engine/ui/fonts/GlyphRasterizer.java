@@ -0,0 +1,123 @@
+package engine.ui.fonts;
+
+import org.lwjgl.BufferUtils;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Draws single chars of an AWT font into {@link GlyphBitmap glyph bitmaps}, either as plain coverage or as a signed
+ * distance field.
+ */
+final class GlyphRasterizer {
+    /** Transparent border around bitmap glyphs, so linear filtering doesn't pick up the neighbouring glyph */
+    private static final int BITMAP_PADDING = 1;
+
+    private final java.awt.Font font;
+    private final FontMetrics metrics;
+    private final DistanceFieldGenerator distanceFieldGenerator;
+
+    /** Scratch image the bitmap glyphs are drawn on, grown when a wider glyph comes along */
+    private BufferedImage scratch;
+    private Graphics2D g;
+    private final char[] drawnChar = new char[1];
+
+    /**
+     * @param font          the font, derived at the size the atlas is baked at
+     * @param distanceField whether to generate signed distance fields instead of coverage
+     */
+    GlyphRasterizer(java.awt.Font font, boolean distanceField) {
+        this.font = font;
+        this.metrics = getMetrics(font);
+        this.distanceFieldGenerator = distanceField ? new DistanceFieldGenerator(font, metrics) : null;
+    }
+
+    int getFontHeight() {
+        return metrics.getHeight();
+    }
+
+    /**
+     * @return whether the font has a glyph with a width for the char. Control codes and surrogates never have one.
+     */
+    boolean canDisplay(char c) {
+        return !Character.isISOControl(c) && !Character.isSurrogate(c) && font.canDisplay(c) && metrics.charWidth(c) > 0;
+    }
+
+    GlyphBitmap rasterize(char c) {
+        if (distanceFieldGenerator != null) {
+            return distanceFieldGenerator.generate(c);
+        }
+
+        int charWidth = metrics.charWidth(c);
+        int charHeight = metrics.getHeight();
+        int width = charWidth + 2 * BITMAP_PADDING;
+        int height = charHeight + 2 * BITMAP_PADDING;
+        ensureScratch(width, height);
+
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, width, height);
+        g.setComposite(AlphaComposite.SrcOver);
+
+        // Clip to the cell of the char, parts that stick out of the advance would be cut off by the quad anyway
+        drawnChar[0] = c;
+        g.setClip(BITMAP_PADDING, BITMAP_PADDING, charWidth, charHeight);
+        g.drawChars(drawnChar, 0, 1, BITMAP_PADDING, BITMAP_PADDING + metrics.getAscent());
+        g.setClip(null);
+
+        int[] pixels = ((DataBufferInt) scratch.getRaster().getDataBuffer()).getData();
+        return new GlyphBitmap(c, charWidth, charHeight, BITMAP_PADDING,
+                toPixelBuffer(pixels, scratch.getWidth(), width, height));
+    }
+
+    private void ensureScratch(int width, int height) {
+        if (scratch != null && scratch.getWidth() >= width && scratch.getHeight() >= height) return;
+
+        if (g != null) g.dispose();
+        int scratchWidth = Math.max(width, scratch != null ? scratch.getWidth() : 0);
+        int scratchHeight = Math.max(height, scratch != null ? scratch.getHeight() : 0);
+        scratch = new BufferedImage(scratchWidth, scratchHeight, BufferedImage.TYPE_INT_ARGB);
+        g = scratch.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setFont(font);
+        g.setPaint(java.awt.Color.WHITE);
+    }
+
+    static FontMetrics getMetrics(java.awt.Font font) {
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setFont(font);
+        FontMetrics metrics = g.getFontMetrics();
+        g.dispose();
+        return metrics;
+    }
+
+    /**
+     * Copies the top left {@code width * height} pixels of an ARGB image into a buffer of RGBA bytes that can be
+     * uploaded to OpenGL.
+     *
+     * @param stride the width of the whole image
+     */
+    static ByteBuffer toPixelBuffer(int[] argbPixels, int stride, int width, int height) {
+        // Writing the ints in little endian order turns 0xAABBGGRR into the bytes R, G, B, A
+        ByteBuffer buffer = BufferUtils.createByteBuffer(width * height * 4);
+        IntBuffer rgba = buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+
+        // OpenGL has its origin (0,0) in the bottom left corner, while BufferedImage has it in the top left corner
+        // So the rows are copied bottom to top to flip the image vertically
+        for (int row = height - 1; row >= 0; row--) {
+            int offset = row * stride;
+            for (int column = 0; column < width; column++) {
+                int argb = argbPixels[offset + column];
+                // Swap the red and blue components: 0xAARRGGBB -> 0xAABBGGRR
+                rgba.put((argb & 0xFF00FF00) | ((argb >> 16) & 0xFF) | ((argb & 0xFF) << 16));
+            }
+        }
+
+        return buffer;
+    }
+}
@@ -0,0 +1,17 @@
+package engine.ui.layout;
+
+/**
+ * How components are aligned on the cross axis of a {@link StackLayout}, in reading order: start is left or top.
+ */
+public enum Alignment {
+    START(0),
+    CENTER(0.5f),
+    END(1);
+
+    /** Fraction of the free space before the component */
+    public final float factor;
+
+    Alignment(float factor) {
+        this.factor = factor;
+    }
+}
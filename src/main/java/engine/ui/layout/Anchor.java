@@ -0,0 +1,25 @@
+package engine.ui.layout;
+
+/**
+ * The point of its parent a component is attached to by an {@link AnchorLayout}. The factors are the fraction of the free
+ * space of the parent on the left and at the bottom of the component.
+ */
+public enum Anchor {
+    BOTTOM_LEFT(0, 0),
+    BOTTOM(0.5f, 0),
+    BOTTOM_RIGHT(1, 0),
+    LEFT(0, 0.5f),
+    CENTER(0.5f, 0.5f),
+    RIGHT(1, 0.5f),
+    TOP_LEFT(0, 1),
+    TOP(0.5f, 1),
+    TOP_RIGHT(1, 1);
+
+    public final float x;
+    public final float y;
+
+    Anchor(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+}
@@ -0,0 +1,35 @@
+package engine.ui.layout;
+
+import engine.ui.UIComponent;
+import org.joml.Vector2f;
+import org.joml.Vector2fc;
+
+/**
+ * Attaches every child to the {@link LayoutParams#anchor anchor} in its layout params, moved by its offset. Children
+ * don't influence each other, so they can overlap.
+ */
+public class AnchorLayout implements Layout {
+
+    @Override
+    public void measure(UIComponent container, Vector2f dest) {
+        dest.zero();
+        for (UIComponent child : container.getChildren()) {
+            Vector2fc size = child.measure();
+            Vector2f offset = child.getLayoutParams().offset;
+            dest.x = Math.max(dest.x, size.x() + Math.abs(offset.x));
+            dest.y = Math.max(dest.y, size.y() + Math.abs(offset.y));
+        }
+    }
+
+    @Override
+    public void arrange(UIComponent container, float x, float y, float width, float height) {
+        for (UIComponent child : container.getChildren()) {
+            Vector2fc size = child.measure();
+            LayoutParams params = child.getLayoutParams();
+            child.setPosition(
+                    x + params.anchor.x * (width - size.x()) + params.offset.x,
+                    y + params.anchor.y * (height - size.y()) + params.offset.y
+            );
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package engine.ui.layout;
+
+import engine.ui.UIComponent;
+import org.joml.Vector2f;
+import org.joml.Vector2fc;
+
+import java.util.List;
+
+/**
+ * Places the children in rows of a fixed amount of columns, starting in the top left corner. Every cell is as large as
+ * the largest child, children are placed in the top left corner of their cell.
+ */
+public class GridLayout implements Layout {
+    private final int columns;
+    private final float spacing;
+
+    /** The cell size, calculated by {@link #measure} and reused by {@link #arrange} */
+    private final Vector2f cellSize = new Vector2f();
+
+    /**
+     * @param spacing space between two rows and between two columns
+     */
+    public GridLayout(int columns, float spacing) {
+        assert columns > 0 : "A grid needs at least one column";
+        this.columns = columns;
+        this.spacing = spacing;
+    }
+
+    @Override
+    public void measure(UIComponent container, Vector2f dest) {
+        List<UIComponent> children = container.getChildren();
+        updateCellSize(children);
+
+        int usedColumns = Math.min(columns, children.size());
+        int rows = (children.size() + columns - 1) / columns;
+        dest.set(
+                usedColumns * cellSize.x + Math.max(0, usedColumns - 1) * spacing,
+                rows * cellSize.y + Math.max(0, rows - 1) * spacing
+        );
+    }
+
+    @Override
+    public void arrange(UIComponent container, float x, float y, float width, float height) {
+        List<UIComponent> children = container.getChildren();
+        updateCellSize(children);
+
+        for (int i = 0; i < children.size(); i++) {
+            UIComponent child = children.get(i);
+            int column = i % columns;
+            int row = i / columns;
+            float cellTop = y + height - row * (cellSize.y + spacing);
+            child.setPosition(x + column * (cellSize.x + spacing), cellTop - child.measure().y());
+        }
+    }
+
+    private void updateCellSize(List<UIComponent> children) {
+        cellSize.zero();
+        for (UIComponent child : children) {
+            Vector2fc size = child.measure();
+            cellSize.x = Math.max(cellSize.x, size.x());
+            cellSize.y = Math.max(cellSize.y, size.y());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package engine.ui.layout;
+
+import engine.ui.UIComponent;
+import org.joml.Vector2f;
+
+/**
+ * Positions the children of a component.
+ * <p>
+ * Layouts only read the {@link UIComponent#measure() measured size} of the children and never lay out the children
+ * themselves, {@link UIComponent#updateLayout()} takes care of walking down the tree.
+ */
+public interface Layout {
+    /**
+     * Calculates the size the children need, without the padding of the container.
+     *
+     * @param dest will hold the size
+     */
+    void measure(UIComponent container, Vector2f dest);
+
+    /**
+     * Moves the children into the content area, which is in coordinates relative to the container.
+     */
+    void arrange(UIComponent container, float x, float y, float width, float height);
+}
@@ -0,0 +1,14 @@
+package engine.ui.layout;
+
+import org.joml.Vector2f;
+
+/**
+ * Tells the {@link Layout} of the parent how to place a component. Call {@link engine.ui.UIComponent#invalidateLayout()}
+ * after changing the fields directly.
+ */
+public final class LayoutParams {
+    /** Used by an {@link AnchorLayout}, ignored by the other layouts */
+    public Anchor anchor = Anchor.BOTTOM_LEFT;
+    /** Added to the anchored position, negative values move the component left or down */
+    public final Vector2f offset = new Vector2f();
+}
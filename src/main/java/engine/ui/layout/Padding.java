@@ -0,0 +1,36 @@
+package engine.ui.layout;
+
+/**
+ * Space between the edges of a component and the area its children are laid out in.
+ */
+public final class Padding {
+    public static final Padding NONE = new Padding(0, 0, 0, 0);
+
+    public final float top;
+    public final float left;
+    public final float bottom;
+    public final float right;
+
+    public Padding(float top, float left, float bottom, float right) {
+        this.top = top;
+        this.left = left;
+        this.bottom = bottom;
+        this.right = right;
+    }
+
+    public static Padding of(float all) {
+        return new Padding(all, all, all, all);
+    }
+
+    public static Padding of(float vertical, float horizontal) {
+        return new Padding(vertical, horizontal, vertical, horizontal);
+    }
+
+    public float horizontal() {
+        return left + right;
+    }
+
+    public float vertical() {
+        return top + bottom;
+    }
+}
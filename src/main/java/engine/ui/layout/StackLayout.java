@@ -0,0 +1,75 @@
+package engine.ui.layout;
+
+import engine.ui.UIComponent;
+import org.joml.Vector2f;
+import org.joml.Vector2fc;
+
+import java.util.List;
+
+/**
+ * Places the children next to each other, left to right or top to bottom, in the order they were added.
+ */
+public class StackLayout implements Layout {
+    public enum Direction {
+        HORIZONTAL,
+        VERTICAL
+    }
+
+    private final Direction direction;
+    private final float spacing;
+    private final Alignment alignment;
+
+    /**
+     * @param spacing   space between two children
+     * @param alignment alignment of the children on the other axis
+     */
+    public StackLayout(Direction direction, float spacing, Alignment alignment) {
+        this.direction = direction;
+        this.spacing = spacing;
+        this.alignment = alignment;
+    }
+
+    @Override
+    public void measure(UIComponent container, Vector2f dest) {
+        dest.zero();
+        List<UIComponent> children = container.getChildren();
+        for (UIComponent child : children) {
+            Vector2fc size = child.measure();
+            if (direction == Direction.HORIZONTAL) {
+                dest.x += size.x();
+                dest.y = Math.max(dest.y, size.y());
+            } else {
+                dest.x = Math.max(dest.x, size.x());
+                dest.y += size.y();
+            }
+        }
+
+        float totalSpacing = Math.max(0, children.size() - 1) * spacing;
+        if (direction == Direction.HORIZONTAL) {
+            dest.x += totalSpacing;
+        } else {
+            dest.y += totalSpacing;
+        }
+    }
+
+    @Override
+    public void arrange(UIComponent container, float x, float y, float width, float height) {
+        if (direction == Direction.HORIZONTAL) {
+            float left = x;
+            for (UIComponent child : container.getChildren()) {
+                Vector2fc size = child.measure();
+                // The y axis points up, so the start (top) of the cross axis has the most space below the child
+                child.setPosition(left, y + (1 - alignment.factor) * (height - size.y()));
+                left += size.x() + spacing;
+            }
+        } else {
+            float top = y + height;
+            for (UIComponent child : container.getChildren()) {
+                Vector2fc size = child.measure();
+                top -= size.y();
+                child.setPosition(x + alignment.factor * (width - size.x()), top);
+                top -= spacing;
+            }
+        }
+    }
+}
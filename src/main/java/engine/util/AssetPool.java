@@ -37,6 +37,17 @@ public class AssetPool {
         }
     }
 
+    /**
+     * Frees the textures of the pool, called when the game closes.
+     */
+    public static void dispose() {
+        for (Texture texture : textures.values()) {
+            texture.release();
+        }
+        textures.clear();
+        spriteSheets.clear();
+    }
+
     public static void addSpriteSheet(String filePath, SpriteSheet spriteSheet) {
         File file = new File(filePath);
         if (!AssetPool.spriteSheets.containsKey(file.getAbsolutePath())) {
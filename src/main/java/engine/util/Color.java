@@ -46,6 +46,18 @@ public class Color {
         return new Vector4f(color.x * 255, color.y * 255, color.z * 255, color.w * 255);
     }
 
+    /**
+     * Packs the color in one int, 8 bits per channel in the order red, green, blue, alpha, like {@code 0xRRGGBBAA}.
+     */
+    public int toRGBA8() {
+        return (channelToByte(color.x) << 24) | (channelToByte(color.y) << 16) | (channelToByte(color.z) << 8)
+                | channelToByte(color.w);
+    }
+
+    private static int channelToByte(float channel) {
+        return Math.round(Math.max(0.0f, Math.min(1.0f, channel)) * 255.0f);
+    }
+
     public void set(Vector4f color) {
         this.color.set(color);
     }
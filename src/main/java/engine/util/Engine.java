@@ -1,18 +1,36 @@
 package engine.util;
 
+/**
+ * Keeps the time of the game loop.
+ * <p>
+ * The game logic runs in ticks of a fixed length, {@link #tickDelta()}, so cooldowns and timers don't depend on the
+ * frame rate. The time of every frame is added to an accumulator and {@link #advance(float)} returns how many ticks
+ * fit in it. After a hitch at most {@link #MAX_TICKS_PER_FRAME} ticks are run, the rest of the time is dropped instead
+ * of taking one giant step. What is left in the accumulator is the {@link #alpha()} the renderers interpolate with.
+ */
 public final class Engine {
+    /** The most ticks that are run to catch up in a single frame */
+    public static final int MAX_TICKS_PER_FRAME = 5;
+
     private static final Engine instance = new Engine();
 
     private float deltaTime;
+    private float tickDelta;
+    private float accumulator;
+    private float alpha;
 
     private Engine() {
         deltaTime = 0;
+        tickDelta = 1.0f / Settings.TICK_RATE;
     }
 
     public static Engine getInstance() {
         return instance;
     }
 
+    /**
+     * @return the time of the last frame in seconds. Game logic uses {@link #tickDelta()} instead.
+     */
     public static float deltaTime() {
         return getInstance().getDeltaTime();
     }
@@ -21,6 +39,61 @@ public final class Engine {
         getInstance().deltaTime = deltaTime;
     }
 
+    /**
+     * @return the length of a tick in seconds.
+     */
+    public static float tickDelta() {
+        return getInstance().tickDelta;
+    }
+
+    /**
+     * @param ticksPerSecond how often the game logic runs, independent of the frame rate
+     */
+    public static void setTickRate(int ticksPerSecond) {
+        if (ticksPerSecond <= 0) {
+            assert false : "Error: (Engine) The tick rate has to be positive, got " + ticksPerSecond;
+            return;
+        }
+        getInstance().tickDelta = 1.0f / ticksPerSecond;
+    }
+
+    /**
+     * Adds the time of a frame to the accumulator.
+     *
+     * @return the amount of ticks to run this frame
+     */
+    public static int advance(float frameTime) {
+        Engine engine = getInstance();
+        engine.accumulator += frameTime;
+
+        int ticks = (int) (engine.accumulator / engine.tickDelta);
+        if (ticks > MAX_TICKS_PER_FRAME) {
+            // Drop the time that can't be caught up with, the game slows down instead of jumping
+            ticks = MAX_TICKS_PER_FRAME;
+            engine.accumulator = 0;
+        } else {
+            engine.accumulator -= ticks * engine.tickDelta;
+        }
+        engine.alpha = engine.accumulator / engine.tickDelta;
+        return ticks;
+    }
+
+    /**
+     * @return how far the frame is between the previous tick and the last one, from 0 to 1. The renderers draw the game
+     * objects that far between their positions of the two ticks.
+     */
+    public static float alpha() {
+        return getInstance().alpha;
+    }
+
+    /**
+     * @return the seconds until the accumulator holds a full tick.
+     */
+    public static float timeUntilNextTick() {
+        Engine engine = getInstance();
+        return Math.max(0, engine.tickDelta - engine.accumulator);
+    }
+
     private float getDeltaTime() {
         return deltaTime;
     }
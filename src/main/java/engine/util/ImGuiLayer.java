@@ -1,6 +1,8 @@
 package engine.util;
 
 import engine.editor.GameViewWindow;
+import engine.editor.GpuMemoryWindow;
+import engine.graphics.FrameScheduler;
 import engine.graphics.Window;
 import engine.listeners.KeyListener;
 import engine.listeners.MouseListener;
@@ -96,6 +98,8 @@ public class ImGuiLayer {
     }
 
     private void keyCallback(long window, int key, int scancode, int action, int mods) {
+        // ImGui keeps some events to itself, they still change what its windows show
+        FrameScheduler.requestRedraw();
         final ImGuiIO io = ImGui.getIO();
         io.addKeyEvent(getImGuiKey(key), action != GLFW_RELEASE);
         if (!io.getWantCaptureKeyboard()) {
@@ -106,12 +110,14 @@ public class ImGuiLayer {
     }
 
     private void charCallback(long window, int c) {
+        FrameScheduler.requestRedraw();
         if (c != GLFW_KEY_DELETE) {
             ImGui.getIO().addInputCharacter(c);
         }
     }
 
     private void mouseButtonCallback(long window, int button, int action, int mods) {
+        FrameScheduler.requestRedraw();
         final ImGuiIO io = ImGui.getIO();
         io.setMouseDown(new boolean[]{
                 button == GLFW_MOUSE_BUTTON_1 && action != GLFW_RELEASE,
@@ -129,6 +135,7 @@ public class ImGuiLayer {
     }
 
     private void scrollCallback(long window, double xOffset, double yOffset) {
+        FrameScheduler.requestRedraw();
         final ImGuiIO io = ImGui.getIO();
         io.addMouseWheelEvent((float) xOffset, (float) yOffset);
 
@@ -184,6 +191,7 @@ public class ImGuiLayer {
         currentScene.sceneImgui();
         ImGui.showDemoWindow();
         GameViewWindow.imgui();
+        GpuMemoryWindow.imgui();
     }
 
     private static int getImGuiKey(int key) {
@@ -89,6 +89,21 @@ public class JMath {
      * @return Returns true if the point is inside the rectangle, otherwise returns false.
      */
     public static boolean inRect(Vector2f in, float rectX, float rectY, float rectWidth, float rectHeight) {
-        return in.x >= rectX && in.x <= (rectX + rectWidth) && in.y >= rectY && in.y <= (rectY + rectHeight);
+        return inRect(in.x, in.y, rectX, rectY, rectWidth, rectHeight);
+    }
+
+    /**
+     * Checks if a set of X and Y coordinates are inside of a rectangle.
+     *
+     * @param x          X coordinate of the point to check
+     * @param y          Y coordinate of the point to check
+     * @param rectX      X position of rectangle
+     * @param rectY      Y position of rectangle
+     * @param rectWidth  Width of rectangle
+     * @param rectHeight Height of rectangle
+     * @return Returns true if the point is inside the rectangle, otherwise returns false.
+     */
+    public static boolean inRect(float x, float y, float rectX, float rectY, float rectWidth, float rectHeight) {
+        return x >= rectX && x <= (rectX + rectWidth) && y >= rectY && y <= (rectY + rectHeight);
     }
 }
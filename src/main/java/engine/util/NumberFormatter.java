@@ -0,0 +1,209 @@
+package engine.util;
+
+/**
+ * Formats numbers straight into a {@link TextBuffer}, without boxing or creating Strings.
+ * <p>
+ * Idle games show huge numbers that change every frame, so a formatter is created once per counter and reused:
+ * <pre>{@code
+ * NumberFormatter formatter = NumberFormatter.suffix(2);
+ * formatter.format(1_234_567, buffer.clear());   // "1.23M"
+ * }</pre>
+ * A formatter is immutable and can be shared between counters, the buffer it writes to can't.
+ */
+public class NumberFormatter {
+    /**
+     * The supported ways to write a number.
+     */
+    public enum Notation {
+        /** A fixed amount of decimals: {@code 1234567.89} */
+        FIXED,
+        /** Groups of thousands with a suffix: {@code 1.23M}, after T the suffixes continue with aa, ab, ... */
+        SUFFIX,
+        /** A mantissa between 1 and 10 with an exponent: {@code 1.23e6} */
+        SCIENTIFIC,
+        /** A mantissa between 1 and 1000 with an exponent that is a multiple of 3: {@code 1.23e6} */
+        ENGINEERING
+    }
+
+    private static final char[][] SUFFIXES = {{}, {'K'}, {'M'}, {'B'}, {'T'}};
+
+    /** Largest amount of decimals, more would overflow the scaled mantissa */
+    private static final int MAX_PRECISION = 9;
+
+    private static final int MIN_EXPONENT = -323;
+    private static final int MAX_EXPONENT = 308;
+    /** Exact powers of ten from 10^MIN_EXPONENT to 10^MAX_EXPONENT, parsed once so they don't build up rounding errors */
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXPONENT - MIN_EXPONENT + 1];
+    private static final long[] LONG_POWERS_OF_TEN = new long[19];
+
+    static {
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = Double.parseDouble("1e" + (i + MIN_EXPONENT));
+        }
+        LONG_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < LONG_POWERS_OF_TEN.length; i++) {
+            LONG_POWERS_OF_TEN[i] = LONG_POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Notation notation;
+    private final int precision;
+    private final boolean trimZeros;
+
+    /**
+     * @param notation  the way the number is written
+     * @param precision the amount of decimals, between 0 and 9
+     * @param trimZeros whether trailing zeros of the decimals (and the decimal point) are left out
+     */
+    public NumberFormatter(Notation notation, int precision, boolean trimZeros) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between 0 and " + MAX_PRECISION + ", got " + precision);
+        }
+        this.notation = notation;
+        this.precision = precision;
+        this.trimZeros = trimZeros;
+    }
+
+    public static NumberFormatter fixed(int precision) {
+        return new NumberFormatter(Notation.FIXED, precision, false);
+    }
+
+    public static NumberFormatter suffix(int precision) {
+        return new NumberFormatter(Notation.SUFFIX, precision, true);
+    }
+
+    public static NumberFormatter scientific(int precision) {
+        return new NumberFormatter(Notation.SCIENTIFIC, precision, false);
+    }
+
+    public static NumberFormatter engineering(int precision) {
+        return new NumberFormatter(Notation.ENGINEERING, precision, false);
+    }
+
+    /**
+     * Appends the formatted value to the buffer.
+     *
+     * @return the buffer that was passed
+     */
+    public TextBuffer format(double value, TextBuffer out) {
+        if (Double.isNaN(value)) {
+            return out.append("NaN");
+        }
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        if (Double.isInfinite(value)) {
+            return out.append("Inf");
+        }
+        if (value == 0) {
+            appendMantissa(0, out);
+            return out;
+        }
+
+        switch (notation) {
+            case FIXED -> {
+                // The scaled value has to fit in a long
+                if (value * LONG_POWERS_OF_TEN[precision] < Long.MAX_VALUE) {
+                    appendMantissa(value, out);
+                } else {
+                    appendScaled(value, 1, out);
+                }
+            }
+            case SUFFIX -> {
+                // Values that round up to 1000 already get a suffix
+                if (Math.round(value * LONG_POWERS_OF_TEN[precision]) < 1000 * LONG_POWERS_OF_TEN[precision]) {
+                    appendMantissa(value, out);
+                } else {
+                    appendScaled(value, 3, out);
+                }
+            }
+            case SCIENTIFIC -> appendScaled(value, 1, out);
+            case ENGINEERING -> appendScaled(value, 3, out);
+        }
+        return out;
+    }
+
+    /**
+     * Writes the value as a mantissa that is a multiple of 10^exponent, where the exponent is a multiple of
+     * {@code step}. The exponent is written as a suffix or as {@code e<exponent>} depending on the notation.
+     */
+    private void appendScaled(double value, int step, TextBuffer out) {
+        int exponent = Math.floorDiv(exponent(value), step) * step;
+
+        long scale = LONG_POWERS_OF_TEN[precision];
+        long scaled = Math.round(value / powerOfTen(exponent) * scale);
+        if (scaled >= LONG_POWERS_OF_TEN[step] * scale) {
+            // Rounding pushed the mantissa up to the next group, e.g. 999.996K -> 1000.00K -> 1.00M
+            exponent += step;
+            scaled = Math.round(value / powerOfTen(exponent) * scale);
+        }
+        appendScaledMantissa(scaled, out);
+
+        if (notation == Notation.SUFFIX) {
+            appendSuffix(exponent / 3, out);
+        } else {
+            out.append('e');
+            out.append(exponent);
+        }
+    }
+
+    private void appendMantissa(double value, TextBuffer out) {
+        appendScaledMantissa(Math.round(value * LONG_POWERS_OF_TEN[precision]), out);
+    }
+
+    /**
+     * Writes a mantissa that has been multiplied by 10^precision and rounded.
+     */
+    private void appendScaledMantissa(long scaled, TextBuffer out) {
+        long scale = LONG_POWERS_OF_TEN[precision];
+        out.append(scaled / scale);
+
+        long decimals = scaled % scale;
+        int digits = precision;
+        if (trimZeros) {
+            while (digits > 0 && decimals % 10 == 0) {
+                decimals /= 10;
+                digits--;
+            }
+        }
+        if (digits > 0) {
+            out.append('.');
+            out.appendDigits(decimals, digits);
+        }
+    }
+
+    /**
+     * Writes the suffix of a group of thousands: nothing, K, M, B, T and then two letters aa, ab, ..., az, ba, ...
+     */
+    private static void appendSuffix(int group, TextBuffer out) {
+        if (group < SUFFIXES.length) {
+            for (char c : SUFFIXES[group]) {
+                out.append(c);
+            }
+            return;
+        }
+        int index = group - SUFFIXES.length;
+        out.append((char) ('a' + index / 26));
+        out.append((char) ('a' + index % 26));
+    }
+
+    /**
+     * @return the exponent of the largest power of ten that is smaller than or equal to the value.
+     */
+    private static int exponent(double value) {
+        int exponent = Math.max(MIN_EXPONENT, (int) Math.floor(Math.log10(value)));
+        // log10 can be off by one for values very close to a power of ten
+        if (exponent > MIN_EXPONENT && value < powerOfTen(exponent)) {
+            exponent--;
+        } else if (exponent < MAX_EXPONENT && value >= powerOfTen(exponent + 1)) {
+            exponent++;
+        }
+        return exponent;
+    }
+
+    private static double powerOfTen(int exponent) {
+        if (exponent < MIN_EXPONENT) return 0;
+        return POWERS_OF_TEN[Math.min(exponent, MAX_EXPONENT) - MIN_EXPONENT];
+    }
+}
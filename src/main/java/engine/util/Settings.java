@@ -31,4 +31,28 @@ public class Settings {
      * Whether the game is in development mode or not
      */
     public static boolean DEVELOPMENT_MODE = true;
+
+    /**
+     * How many times per second the game logic runs, like the cooldowns and the economy. The frame rate doesn't depend
+     * on it, see {@link Engine}.
+     */
+    public static int TICK_RATE = 60;
+
+    /**
+     * Whether the sprite batches are built on the render worker while the next frame is updated. The sprites are drawn
+     * one frame later than they are updated.
+     */
+    public static boolean RENDER_WORKER = false;
+
+    /**
+     * Whether frames are only drawn when something changed, like input, a changed observable or a running animation.
+     * Otherwise a frame is drawn every iteration of the game loop. See {@link engine.graphics.FrameScheduler}.
+     */
+    public static boolean ON_DEMAND_RENDERING = true;
+
+    /**
+     * Whether only the parts of the scene that changed are drawn again, the framebuffer of the scene keeps the rest of
+     * the last frame. The whole scene is drawn when too much changed, see {@link engine.graphics.DamageRegion}.
+     */
+    public static boolean PARTIAL_REDRAW = true;
 }
@@ -0,0 +1,128 @@
+package engine.util;
+
+/**
+ * A reusable, growable buffer of chars that can be passed anywhere a {@link CharSequence} is expected.
+ * <p>
+ * Unlike {@link StringBuilder}, the buffer is meant to be cleared and refilled every frame. Once it has grown to the
+ * largest text it holds, appending to it never allocates.
+ */
+public class TextBuffer implements CharSequence {
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private char[] chars;
+    private int length;
+
+    public TextBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TextBuffer(int capacity) {
+        chars = new char[capacity];
+    }
+
+    /**
+     * Empties the buffer while keeping its capacity.
+     *
+     * @return this buffer
+     */
+    public TextBuffer clear() {
+        length = 0;
+        return this;
+    }
+
+    public TextBuffer append(char c) {
+        ensureCapacity(length + 1);
+        chars[length++] = c;
+        return this;
+    }
+
+    public TextBuffer append(CharSequence sequence) {
+        int sequenceLength = sequence.length();
+        ensureCapacity(length + sequenceLength);
+        for (int i = 0; i < sequenceLength; i++) {
+            chars[length++] = sequence.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the decimal digits of a number.
+     *
+     * @return this buffer
+     */
+    public TextBuffer append(long value) {
+        if (value < 0) {
+            append('-');
+            if (value == Long.MIN_VALUE) {
+                // -Long.MIN_VALUE does not fit in a long
+                return append("9223372036854775808");
+            }
+            value = -value;
+        }
+        return appendDigits(value, 1);
+    }
+
+    /**
+     * Appends the decimal digits of a positive number, padded with leading zeros up to {@code minDigits} digits.
+     *
+     * @return this buffer
+     */
+    public TextBuffer appendDigits(long value, int minDigits) {
+        // Write the digits in reverse order and flip them afterwards
+        int start = length;
+        int digits = 0;
+        do {
+            append((char) ('0' + (value % 10)));
+            value /= 10;
+            digits++;
+        } while (value > 0);
+        while (digits < minDigits) {
+            append('0');
+            digits++;
+        }
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char tmp = chars[i];
+            chars[i] = chars[j];
+            chars[j] = tmp;
+        }
+        return this;
+    }
+
+    /**
+     * Removes the last {@code count} chars from the buffer.
+     */
+    public void truncate(int count) {
+        length = Math.max(0, length - count);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= chars.length) return;
+
+        char[] newChars = new char[Math.max(capacity, chars.length * 2)];
+        System.arraycopy(chars, 0, newChars, 0, length);
+        chars = newChars;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,31 @@
+package engine.util.observable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the {@link Observable observables} that changed during a frame, so their listeners are called once per frame.
+ */
+public class ChangeQueue {
+    private static final List<Observable> changed = new ArrayList<>();
+
+    static void queue(Observable observable) {
+        changed.add(observable);
+    }
+
+    /**
+     * Calls the listeners of every observable that changed since the last flush. Called once per frame, before the
+     * scene is rendered.
+     *
+     * @return whether any observable changed.
+     */
+    public static boolean flush() {
+        boolean anyChanged = !changed.isEmpty();
+        // Listeners can change other observables, those are added to the end of the list and notified in this flush
+        for (int i = 0; i < changed.size(); i++) {
+            changed.get(i).notifyListeners();
+        }
+        changed.clear();
+        return anyChanged;
+    }
+}
@@ -0,0 +1,75 @@
+package engine.util.observable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A value that listeners can subscribe to.
+ * <p>
+ * Listeners are not called when the value is set, the change is queued in the {@link ChangeQueue} and the listeners are
+ * called when the queue is flushed, once per frame. A value that changes many times in a frame notifies its listeners
+ * once, and a value that is set to what it already was doesn't notify them at all.
+ */
+public abstract class Observable {
+    private final List<Runnable> listeners = new ArrayList<>();
+    /** Whether the value is in the change queue */
+    private boolean queued;
+    /** Whether the listeners are being called, a listener that is cancelled then is only marked as removed */
+    private boolean notifying;
+    /** Whether a listener was cancelled while the listeners were being called */
+    private boolean hasCancelled;
+
+    /**
+     * Calls the listener at the end of every frame in which the value changed. The listener reads the new value from
+     * the observable itself.
+     *
+     * @return the subscription, cancel it when the listener is no longer needed
+     */
+    public Subscription subscribe(Runnable listener) {
+        listeners.add(listener);
+        return new Subscription(this, listener);
+    }
+
+    void unsubscribe(Runnable listener) {
+        if (!notifying) {
+            listeners.remove(listener);
+            return;
+        }
+
+        // Removing would shift the listeners after it, and the next one would be skipped
+        int index = listeners.indexOf(listener);
+        if (index != -1) {
+            listeners.set(index, null);
+            hasCancelled = true;
+        }
+    }
+
+    /**
+     * Has to be called by subclasses after the value changed.
+     */
+    protected void changed() {
+        if (queued || listeners.isEmpty()) return;
+
+        queued = true;
+        ChangeQueue.queue(this);
+    }
+
+    void notifyListeners() {
+        // Reset first, so a listener that changes the value again queues it again
+        queued = false;
+        notifying = true;
+        for (int i = 0; i < listeners.size(); i++) {
+            Runnable listener = listeners.get(i);
+            if (listener != null) {
+                listener.run();
+            }
+        }
+        notifying = false;
+
+        if (hasCancelled) {
+            listeners.removeIf(Objects::isNull);
+            hasCancelled = false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package engine.util.observable;
+
+public class ObservableFloat extends Observable {
+    private float value;
+
+    public ObservableFloat(float value) {
+        this.value = value;
+    }
+
+    public float get() {
+        return value;
+    }
+
+    public void set(float value) {
+        if (this.value == value) return;
+
+        this.value = value;
+        changed();
+    }
+}
@@ -0,0 +1,20 @@
+package engine.util.observable;
+
+public class ObservableInt extends Observable {
+    private int value;
+
+    public ObservableInt(int value) {
+        this.value = value;
+    }
+
+    public int get() {
+        return value;
+    }
+
+    public void set(int value) {
+        if (this.value == value) return;
+
+        this.value = value;
+        changed();
+    }
+}
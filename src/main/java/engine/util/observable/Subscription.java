@@ -0,0 +1,22 @@
+package engine.util.observable;
+
+/**
+ * A listener that is subscribed to an {@link Observable}.
+ */
+public final class Subscription {
+    private final Observable observable;
+    private final Runnable listener;
+
+    Subscription(Observable observable, Runnable listener) {
+        this.observable = observable;
+        this.listener = listener;
+    }
+
+    /**
+     * Stops calling the listener. Has to be called when the listener belongs to something that is thrown away, like the
+     * UI of a scene, while the observable lives on.
+     */
+    public void cancel() {
+        observable.unsubscribe(listener);
+    }
+}
@@ -4,11 +4,16 @@ import engine.ecs.Sprite;
 import engine.ecs.Transform;
 import engine.graphics.Window;
 import engine.ui.BaseComponent;
+import engine.ui.Panel;
 import engine.ui.RenderableComponent;
 import engine.ui.Text;
 import engine.ui.UIComponent;
 import engine.ui.fonts.FontLoader;
+import engine.ui.layout.Anchor;
+import engine.ui.layout.AnchorLayout;
 import engine.util.AssetPool;
+import engine.util.NumberFormatter;
+import engine.util.TextBuffer;
 import org.joml.Vector2f;
 import testGame.resources.Resource;
 import testGame.resources.ResourceManager;
@@ -21,21 +26,26 @@ public class ResourceCounterUI extends RenderableComponent {
     private static final int ICON_SIZE = 30;
     private static final int BACKGROUND_HEIGHT = 20;
     private static final int BACKGROUND_WIDTH = 100;
+    private static final NumberFormatter AMOUNT_FORMATTER = NumberFormatter.suffix(2);
 
     private Resource resource;
     private Text text;
+    private final TextBuffer amountText = new TextBuffer();
+    /** Carries the amount, kept out of the counter so the counter can be cached while the amount changes */
+    private final Panel amountLabel;
 
-    public ResourceCounterUI(Class<? extends Resource> clazz, float x, float y) {
+    public ResourceCounterUI(Class<? extends Resource> clazz) {
         super(clazz.getSimpleName() + "Background", WHITE, new Sprite());
 
         resource = ResourceManager.getResource(clazz);
 
         // Background
         this.setTransform(new Transform(
-                new Vector2f(x, y),
+                new Vector2f(),
                 new Vector2f(BACKGROUND_WIDTH, BACKGROUND_HEIGHT))
         );
         this.setNoInteraction();
+        this.setLayout(new AnchorLayout(), false);
 
         // Icon
         UIComponent icon = new RenderableComponent(
@@ -43,21 +53,37 @@ public class ResourceCounterUI extends RenderableComponent {
                 new Sprite().setTexture(AssetPool.getTexture(resource.getTexturePath()))
         );
         icon.setTransform(new Transform(
-                new Vector2f(-ICON_SIZE, (int) ((BACKGROUND_HEIGHT - ICON_SIZE) / 2)),
+                new Vector2f(),
                 new Vector2f(ICON_SIZE, ICON_SIZE)
         ));
+        // Left of the background, centered vertically
+        icon.setAnchor(Anchor.LEFT, -ICON_SIZE, 0);
         icon.setNoInteraction();
         this.addChild(icon);
 
 
-        // Text
+        // Text, on a label of the same size as the background that is laid out on top of it
+        amountLabel = new Panel(clazz.getSimpleName() + "Amount", null);
+        amountLabel.setTransform(new Transform(
+                new Vector2f(),
+                new Vector2f(BACKGROUND_WIDTH, BACKGROUND_HEIGHT))
+        );
         text = new Text("", FontLoader.getOpenSans(), BLACK, 5, 0);
-        text.setParent(this);
+        text.setParent(amountLabel);
+
+        // The text is only changed in the frames the amount changes
+        showAmount();
+        Window.getScene().subscribe(resource.amountProperty(), this::showAmount);
+    }
+
+    /**
+     * @return the label with the amount. It isn't a child of the counter, it has to be placed on top of it.
+     */
+    public UIComponent getAmountLabel() {
+        return amountLabel;
     }
 
-    @Override
-    public void update() {
-        super.update();
-        text.change(resource.amount() + "");
+    private void showAmount() {
+        text.change(AMOUNT_FORMATTER.format(resource.amount(), amountText.clear()));
     }
 }
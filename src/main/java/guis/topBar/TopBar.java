@@ -2,7 +2,10 @@ package guis.topBar;
 
 import engine.ecs.Sprite;
 import engine.ecs.Transform;
+import engine.ui.Panel;
 import engine.ui.RenderableComponent;
+import engine.ui.UIComponent;
+import engine.ui.layout.*;
 import engine.util.Color;
 import engine.util.Settings;
 import org.joml.Vector2f;
@@ -13,15 +16,38 @@ import testGame.resources.types.Wood;
 
 public class TopBar extends RenderableComponent {
 
+    private static final int HEIGHT = 50;
+    private static final int MARGIN = 50;
+    private static final int RESOURCE_SPACING = 50;
+
     public TopBar() {
         super("TopBar", Color.BACKGROUND, new Sprite());
-        this.setTransform(new Transform(new Vector2f(0, Settings.PROJECTION_HEIGHT - 50), new Vector2f(Settings.PROJECTION_WIDTH, 50)));
+        this.setTransform(new Transform(new Vector2f(0, Settings.PROJECTION_HEIGHT - HEIGHT), new Vector2f(Settings.PROJECTION_WIDTH, HEIGHT)));
         this.setNoInteraction();
+        this.setLayout(new AnchorLayout(), false);
+        this.setPadding(new Padding(0, MARGIN, 0, MARGIN));
+
+        // The backgrounds and icons of the counters never change, they are drawn from one cached texture. The amounts
+        // change and are laid out the same way on top of it, so a changed amount doesn't render the cache again.
+        Panel resources = new Panel("Resources", new StackLayout(StackLayout.Direction.HORIZONTAL, RESOURCE_SPACING, Alignment.CENTER));
+        Panel amounts = new Panel("ResourceAmounts", new StackLayout(StackLayout.Direction.HORIZONTAL, RESOURCE_SPACING, Alignment.CENTER));
+        resources.setCacheable(true);
+        addCounter(resources, amounts, new ResourceCounterUI(Wood.class));
+        addCounter(resources, amounts, new ResourceCounterUI(Metal.class));
+        addCounter(resources, amounts, new ResourceCounterUI(Stone.class));
+        resources.setAnchor(Anchor.LEFT, 0, 0);
+        amounts.setAnchor(Anchor.LEFT, 0, 0);
+        this.addChild(resources);
+        this.addChild(amounts);
 
-        this.addChild(new ResourceCounterUI(Wood.class, 50, 15));
-        this.addChild(new ResourceCounterUI(Metal.class, 200, 15));
-        this.addChild(new ResourceCounterUI(Stone.class, 350, 15));
+        UIComponent mainMenuButton = new SceneButton("Main Menu", 0, 0, 100, 40, HomeScene.class).getRootComponent();
+        mainMenuButton.setAnchor(Anchor.RIGHT, 0, 0);
+        // Not cached, the button changes color when it is hovered
+        this.addChild(mainMenuButton);
+    }
 
-        this.addChild(new SceneButton("Main Menu", Settings.PROJECTION_WIDTH - 150, 0, 100, 40, HomeScene.class).getRootComponent());
+    private static void addCounter(Panel resources, Panel amounts, ResourceCounterUI counter) {
+        resources.addChild(counter);
+        amounts.addChild(counter.getAmountLabel());
     }
 }
@@ -6,7 +6,6 @@ import engine.ecs.Transform;
 import engine.ecs.components.MouseControls;
 import engine.ecs.components.SpriteRenderer;
 import engine.graphics.Camera;
-import engine.ui.fonts.FontLoader;
 import engine.util.AssetPool;
 import engine.util.Layer;
 import engine.util.Settings;
@@ -31,7 +30,6 @@ public class DevScene extends Scene {
     public void init() {
         devSceneGameObject.addComponent(new MouseControls());
         this.camera = new Camera(new Vector2f());
-        FontLoader.loadFonts();
         loadResources();
 
         new ResourceObject(Wood.class, (float) Settings.PROJECTION_WIDTH / 2 - 400, 100);
@@ -1,7 +1,6 @@
 package scenes;
 
 import engine.graphics.Camera;
-import engine.ui.fonts.FontLoader;
 import org.joml.Vector2f;
 
 public class HomeScene extends Scene {
@@ -12,7 +11,6 @@ public class HomeScene extends Scene {
     @Override
     public void init() {
         this.camera = new Camera(new Vector2f());
-        FontLoader.loadFonts();
 
 
     }
@@ -2,13 +2,21 @@ package scenes;
 
 import engine.ecs.GameObject;
 import engine.graphics.Camera;
+import engine.graphics.DamageRegion;
+import engine.graphics.FrameScheduler;
+import engine.graphics.RenderGraph;
+import engine.graphics.RenderPass;
+import engine.graphics.RenderTarget;
 import engine.graphics.renderer.*;
+import engine.listeners.MouseListener;
 import engine.ui.BaseComponent;
-import engine.ui.RenderableComponent;
 import engine.ui.Text;
 import engine.ui.UIComponent;
+import engine.ui.UIInputDispatcher;
 import engine.util.Layer;
 import engine.util.ModifiableList;
+import engine.util.observable.Observable;
+import engine.util.observable.Subscription;
 import imgui.ImGui;
 
 import java.util.ArrayList;
@@ -18,14 +26,18 @@ public abstract class Scene {
 
     public DefaultRenderer renderer = new DefaultRenderer();
     public PickingRenderer pickingRenderer = new PickingRenderer();
-    public TextRenderer textRenderer = new TextRenderer();
     public UIRenderer uiRenderer = new UIRenderer();
+    /** The renderers in the order they are drawn, the sprite renderers extract a snapshot at the end of the update */
+    private final List<Renderer> renderers = List.of(pickingRenderer, renderer, uiRenderer);
     protected Camera camera;
     private boolean isRunning = false;
 
     protected ModifiableList<GameObject> gameObjects = new ModifiableList<>();
     protected ModifiableList<UIComponent> uiComponents = new ModifiableList<>();
+    private final UIInputDispatcher uiInputDispatcher = new UIInputDispatcher();
     protected List<Text> texts = new ArrayList<>();
+    /** Listeners of the scene on observables that outlive it, like the resources */
+    private final List<Subscription> subscriptions = new ArrayList<>();
 
     protected GameObject activeGameObject = null;
     /**
@@ -40,7 +52,6 @@ public abstract class Scene {
     public Scene() {
         this.renderer.init();
         this.pickingRenderer.init();
-        this.textRenderer.init();
         this.uiRenderer.init();
     }
 
@@ -81,6 +92,10 @@ public abstract class Scene {
      * Called at the end of the frame to apply all queued modifications to the {@link #gameObjects} list.
      */
     public void processPendingModifications() {
+        if (!gameObjects.getAddTasks().isEmpty() || !gameObjects.getRemoveTasks().isEmpty()
+                || !uiComponents.getAddTasks().isEmpty() || !uiComponents.getRemoveTasks().isEmpty()) {
+            FrameScheduler.requestRedraw();
+        }
         for (GameObject go : gameObjects.getRemoveTasks()) {
             if (isRunning) {
                 removeFromRenderers(go);
@@ -96,34 +111,48 @@ public abstract class Scene {
 
 
         for (UIComponent c : uiComponents.getRemoveTasks()) {
-            if (c instanceof RenderableComponent) {
-                this.uiRenderer.remove((RenderableComponent) c);
-            }
+            this.uiRenderer.remove(c);
         }
         for (UIComponent c : uiComponents.getAddTasks()) {
-            if (c instanceof RenderableComponent) {
-                this.uiRenderer.add((RenderableComponent) c);
-            }
+            this.uiRenderer.add(c);
         }
         uiComponents.applyChanges();
     }
 
     public void addTextToScene(Text t) {
-        this.textRenderer.add(t);
+        this.uiRenderer.add(t);
         this.texts.add(t);
     }
 
     public void removeTextFromScene(Text t) {
-        this.textRenderer.remove(t);
+        this.uiRenderer.remove(t);
+        // Texts on a component are drawn with the component, detach it so it isn't drawn anymore
+        t.setParent(null);
         this.texts.remove(t);
     }
 
     public void addUIComponent(UIComponent c) {
         System.out.println("Adding UI component");
+        // Added to the renderers with the other pending modifications, adding it here as well would draw it twice
         this.uiComponents.add(c);
-        if (c instanceof RenderableComponent) {
-            this.uiRenderer.add((RenderableComponent) c);
+    }
+
+
+    /**
+     * Subscribes a listener of this scene to an observable, the subscription is cancelled when the scene is left.
+     */
+    public void subscribe(Observable observable, Runnable listener) {
+        subscriptions.add(observable.subscribe(listener));
+    }
+
+    /**
+     * Stops the observables from calling into this scene.
+     */
+    public void unsubscribeAll() {
+        for (Subscription subscription : subscriptions) {
+            subscription.cancel();
         }
+        subscriptions.clear();
     }
 
 
@@ -132,7 +161,31 @@ public abstract class Scene {
     // =================================================================================================================
 
     /**
-     * Called once per frame to update things that are not added to the {@link #gameObjects} list.
+     * Runs one tick of the game logic: the update of the scene, of the game objects and the timers of the UI. Called
+     * {@link engine.util.Settings#TICK_RATE} times per second, however many frames are drawn.
+     */
+    public void tick() {
+        // The renderers interpolate between these positions and the ones after the tick
+        for (GameObject go : this.gameObjects) {
+            go.transform.savePreviousPosition();
+        }
+        update();
+        updateGameObjects();
+        for (UIComponent c : this.uiComponents) {
+            c.tick();
+        }
+
+        for (GameObject go : this.gameObjects) {
+            if (go.transform.movedInLastTick()) {
+                // The frames until the next tick interpolate towards the new position
+                FrameScheduler.requestRedraw();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Called once per tick to update things that are not added to the {@link #gameObjects} list.
      */
     public abstract void update();
 
@@ -142,10 +195,28 @@ public abstract class Scene {
         }
     }
 
-    public void updateUI() {
-        for (Text t : this.texts) {
-            t.update();
+    /**
+     * Lets the game objects handle the mouse. Called once per frame, a click can be shorter than a tick.
+     */
+    public void updateGameObjectInput() {
+        for (GameObject go : this.gameObjects) {
+            go.updateInput();
         }
+    }
+
+    /**
+     * Lays out the UI components that changed, and finds the UI component under the mouse. Called once per frame before
+     * anything is updated, so the game objects know whether the mouse is on the UI.
+     */
+    public void updateUIInput() {
+        for (UIComponent c : this.uiComponents) {
+            c.updateLayout();
+        }
+        uiInputDispatcher.hitTest(uiComponents, MouseListener.getSnapshot());
+    }
+
+    public void updateUI() {
+        uiInputDispatcher.dispatchEvents();
         for (UIComponent c : this.uiComponents) {
             c.update();
         }
@@ -175,11 +246,44 @@ public abstract class Scene {
         }
     }
 
-    public void render() {
-        this.pickingRenderer.render();
-        this.renderer.render();
-        this.uiRenderer.render();
-        this.textRenderer.render();
+    /**
+     * Adds the passes of the scene to the render graph of the window: the picking texture, the sprites and the UI.
+     * The picking texture is only drawn when an interactive game object might be under the mouse.
+     */
+    public void addRenderPasses(RenderGraph graph) {
+        graph.setFramebuffer(RenderTarget.PICKING, pickingRenderer.getFramebuffer());
+        graph.addConsumer(RenderTarget.PICKING, this::isPickingNeeded);
+
+        graph.addPass(new RenderPass("UI caches", RenderTarget.UI_CACHES, uiRenderer::renderCaches)
+                .onlyWhen(uiRenderer::hasDirtyCaches));
+        graph.addPass(new RenderPass("Picking", RenderTarget.PICKING, pickingRenderer));
+        graph.addPass(new RenderPass("Sprites", RenderTarget.SCENE_COLOR, renderer));
+        graph.addPass(new RenderPass("UI", RenderTarget.SCENE_COLOR, uiRenderer).reads(RenderTarget.UI_CACHES));
+    }
+
+    /**
+     * Adds the areas of the screen where the sprites or the UI changed since the last frame to the region.
+     */
+    public void addDamage(DamageRegion damage) {
+        renderer.addDamage(damage);
+        uiRenderer.addDamage(damage);
+    }
+
+    private boolean isPickingNeeded() {
+        // The game objects don't read the picking texture when the mouse is on the UI
+        if (uiInputDispatcher.isMouseOverUI()) return false;
+        return pickingRenderer.updateSpriteUnderMouse(MouseListener.getOrthoX(), MouseListener.getOrthoY());
+    }
+
+    /**
+     * Called when another scene is loaded or the game closes. Cancels the subscriptions of the scene and frees the GPU
+     * resources of its renderers, they are deleted at the end of the frame.
+     */
+    public void dispose() {
+        unsubscribeAll();
+        this.renderer.dispose();
+        this.pickingRenderer.dispose();
+        this.uiRenderer.dispose();
     }
 
 
@@ -195,10 +299,18 @@ public abstract class Scene {
         return this.renderer;
     }
 
+    public List<Renderer> renderers() {
+        return this.renderers;
+    }
+
     public PickingRenderer pickingRenderer() {
         return this.pickingRenderer;
     }
 
+    public UIInputDispatcher uiInputDispatcher() {
+        return this.uiInputDispatcher;
+    }
+
 
     // =================================================================================================================
     // IMGUI
@@ -1,10 +1,11 @@
 package testGame.resources;
 
+import engine.util.observable.ObservableFloat;
 
 public abstract class Resource {
     private String name;
-    private float amount;
-    private float amountPerClick = 1;
+    private final ObservableFloat amount = new ObservableFloat(0);
+    private final ObservableFloat amountPerClick = new ObservableFloat(1);
 
     protected String texturePath;
     protected float clickDelay;
@@ -18,10 +19,21 @@ public abstract class Resource {
     }
 
     public float amount() {
-        return amount;
+        return amount.get();
     }
 
     public float amountPerClick() {
+        return amountPerClick.get();
+    }
+
+    /**
+     * @return the amount, subscribe to it to be notified when it changes.
+     */
+    public ObservableFloat amountProperty() {
+        return amount;
+    }
+
+    public ObservableFloat amountPerClickProperty() {
         return amountPerClick;
     }
 
@@ -30,11 +42,11 @@ public abstract class Resource {
     }
 
     public void setAmount(float amount) {
-        this.amount = amount;
+        this.amount.set(amount);
     }
 
     public void setAmountPerClick(float amountPerClick) {
-        this.amountPerClick = amountPerClick;
+        this.amountPerClick.set(amountPerClick);
     }
 
     public String getTexturePath() {
@@ -4,6 +4,7 @@ import engine.ecs.GameObject;
 import engine.ecs.components.SpriteRenderer;
 import engine.graphics.Window;
 import engine.util.Color;
+import engine.util.observable.ObservableInt;
 
 import testGame.resources.Resource;
 import testGame.resources.ResourceManager;
@@ -13,7 +14,7 @@ import java.util.Map;
 
 public class Tool {
     private String name;
-    private int level = 1;
+    private final ObservableInt level = new ObservableInt(1);
     private Map<Class<? extends Resource>, Integer> resourceIncreases;
     private GameObject tooltipGo;
 
@@ -22,11 +23,11 @@ public class Tool {
     }
 
     private void upgrade() {
-        this.level++;
-        System.out.println(this.name + " has been upgraded to level " + this.level);
+        this.level.set(this.level.get() + 1);
+        System.out.println(this.name + " has been upgraded to level " + this.level.get());
 
         for (Class<? extends Resource> resource : resourceIncreases.keySet()) {
-            ResourceManager.getResource(resource).setAmountPerClick(resourceIncreases.get(resource) * level);
+            ResourceManager.getResource(resource).setAmountPerClick(resourceIncreases.get(resource) * level.get());
         }
     }
 
@@ -35,6 +36,13 @@ public class Tool {
     }
 
     public int level() {
+        return level.get();
+    }
+
+    /**
+     * @return the level, subscribe to it to be notified when it changes.
+     */
+    public ObservableInt levelProperty() {
         return level;
     }
 
@@ -43,7 +51,7 @@ public class Tool {
     }
 
     public void setLevel(int level) {
-        this.level = level;
+        this.level.set(level);
     }
 
     public int getResourceIncrease(Class<? extends Resource> resource) {
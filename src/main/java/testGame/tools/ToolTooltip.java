@@ -3,6 +3,7 @@ package testGame.tools;
 import engine.ecs.GameObject;
 import engine.ecs.Transform;
 import engine.ecs.components.SpriteRenderer;
+import engine.graphics.Window;
 import engine.ui.Text;
 import engine.ui.fonts.Font;
 import engine.ui.fonts.FontLoader;
@@ -26,6 +27,7 @@ public class ToolTooltip {
         tooltip.addComponent(new SpriteRenderer().setColor(Color.WHITE));
 
         Text level = new Text("Level: " + tool.level(), font, Color.BLACK, toolTipPosition.x + 10, toolTipPosition.y);
+        Window.getScene().subscribe(tool.levelProperty(), () -> level.change("Level: " + tool.level()));
         return tooltip;
     }
 }